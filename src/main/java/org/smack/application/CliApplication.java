@@ -5,17 +5,34 @@
  */
 package org.smack.application;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -24,6 +41,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -105,12 +127,24 @@ public class CliApplication
     private static final String UNNAMED = "*";
 
     /**
-     * A map of all commands implemented by this cli. Keys are
-     * command name and number of arguments, the value represents
-     * the respective method.
+     * The commands of a delegate class.  Built once per class and
+     * shared by all instances.
      */
-    private final MultiMap<String, Integer, CommandHolder> _commandMap =
-            new MultiMap<>();
+    private final CommandTable _commands;
+
+    /**
+     * The command tables of the delegate classes.  A class value does not
+     * keep the class and its loader alive.
+     */
+    private static final ClassValue<CommandTable> _commandTables =
+            new ClassValue<>()
+    {
+        @Override
+        protected CommandTable computeValue( Class<?> cl )
+        {
+            return new CommandTable( cl );
+        }
+    };
 
     private final Map<String,PropertyHolder> _propertyMap;
 
@@ -122,7 +156,8 @@ public class CliApplication
         _delegate =
                 delegate;
 
-        initCommandMap( _delegate.getClass() );
+        _commands =
+                getCommandTable( _delegate.getClass() );
 
         _propertyMap =
                 getPropertyMap( _delegate );
@@ -133,7 +168,8 @@ public class CliApplication
         _delegate =
                 this;
 
-        initCommandMap( _delegate.getClass() );
+        _commands =
+                getCommandTable( _delegate.getClass() );
 
         _propertyMap =
                 getPropertyMap( _delegate );
@@ -157,14 +193,126 @@ public class CliApplication
     private String _currentCommand =
             StringUtil.EMPTY_STRING;
 
+    /**
+     * The context of a command line executed in a parallel batch or of
+     * a served connection.  Holds the command name and the command's
+     * output streams.
+     */
+    private static final class CommandContext
+    {
+        private final int _lineNumber;
+        private final String _line;
+
+        private String _currentCommand =
+                StringUtil.EMPTY_STRING;
+        private boolean _success;
+
+        private final ByteArrayOutputStream _outBuffer;
+        private final PrintStream _out;
+        private final ByteArrayOutputStream _errBuffer;
+        private final PrintStream _err;
+
+        /**
+         * Creates a context buffering the output of a command line.
+         */
+        CommandContext( int lineNumber, String line )
+        {
+            _lineNumber = lineNumber;
+            _line = line;
+            _outBuffer = new ByteArrayOutputStream();
+            _out = new PrintStream( _outBuffer );
+            _errBuffer = new ByteArrayOutputStream();
+            _err = new PrintStream( _errBuffer );
+        }
+
+        /**
+         * Creates a context writing the output to the passed streams.
+         */
+        CommandContext( PrintStream out, PrintStream err )
+        {
+            _lineNumber = 0;
+            _line = null;
+            _outBuffer = null;
+            _out = out;
+            _errBuffer = null;
+            _err = err;
+        }
+
+        /**
+         * Write the buffered output to the passed streams.
+         */
+        void flushTo( PrintStream out, PrintStream err )
+        {
+            _out.flush();
+            _err.flush();
+            out.write( _outBuffer.toByteArray(), 0, _outBuffer.size() );
+            err.write( _errBuffer.toByteArray(), 0, _errBuffer.size() );
+        }
+    }
+
+    /**
+     * The context of the command executed by the current thread in a
+     * parallel batch or a served connection.  Not set otherwise.
+     */
+    private final ThreadLocal<CommandContext> _context =
+            new ThreadLocal<>();
+
+    /**
+     * The maximum number of command lines of a parallel batch that are
+     * executed or wait for output.
+     */
+    private static final int MAX_PENDING = 1024;
+
     /**
      * @return The name of the currently executing command.
      */
     protected final String currentCommand()
     {
+        var context = _context.get();
+
+        if ( context != null )
+            return context._currentCommand;
+
         return _currentCommand;
     }
 
+    /**
+     * @param name The name of the currently executing command.
+     */
+    private void setCurrentCommand( String name )
+    {
+        var context = _context.get();
+
+        if ( context != null )
+            context._currentCommand = name;
+        else
+            _currentCommand = name;
+    }
+
+    /**
+     * @return The output stream of the current command.
+     */
+    private PrintStream outStream()
+    {
+        var context = _context.get();
+
+        return context != null ?
+                context._out :
+                System.out;
+    }
+
+    /**
+     * @return The error stream of the current command.
+     */
+    private PrintStream errStream()
+    {
+        var context = _context.get();
+
+        return context != null ?
+                context._err :
+                System.err;
+    }
+
     /**
      * A fallback called if no command was passed or the passed command was
      * unknown.
@@ -181,18 +329,21 @@ public class CliApplication
 
     /**
      * Perform the launch of the cli instance.
+     *
+     * @return {@code true} if the command line was successfully
+     * processed.
      */
-    private void launch( String[] argv )
+    private boolean launch( String[] argv )
             throws Exception
     {
         if ( argv.length == 0 ) {
             defaultCmd(argv);
-            return;
+            return true;
         }
 
         if ( argv.length == 1 && argv[0].equals("?") ) {
             err(usage());
-            return;
+            return true;
         }
 
         if ( _propertyMap.size() > 0 )
@@ -200,59 +351,52 @@ public class CliApplication
 
         var cmdName = argv[0].toLowerCase();
 
-        CommandHolder selectedCommand = _commandMap.get(
-            cmdName,
-            Integer.valueOf(argv.length - 1) );
+        var selectedCommands = _commands._dispatch.get(
+                cmdName );
 
-        if ( selectedCommand != null )
+        if ( selectedCommands != null )
         {
-            // We found a matching command.
-            _currentCommand =
-                    selectedCommand.getName() ;
-            selectedCommand.execute(
-                    Arrays.copyOfRange( argv, 1, argv.length ) );
-            return;
-        }
-
-        selectedCommand = _commandMap.get(
-                cmdName,
-                -1 );
+            var selectedCommand = selectedCommands.get(
+                    argv.length - 1 );
 
-        if ( selectedCommand != null )
-        {
-            selectedCommand.execute(
-                    Arrays.copyOfRange( argv, 1, argv.length ) );
-            return;
-        }
+            if ( selectedCommand != null )
+            {
+                // We found a matching command.
+                setCurrentCommand(
+                        selectedCommand.getName() );
+                return selectedCommand.execute(
+                        this,
+                        argv,
+                        1 );
+            }
 
-        // No command matched, so we check if there are commands
-        // where at least the command name matches.
-        Map<Integer, CommandHolder> possibleCommands =
-                _commandMap.getAll( cmdName );
-        if ( possibleCommands.size() > 0 )
-        {
+            // No command matched, but the command name matches.
             err( "%s%n",
                     "Parameter count does not match. Available alternatives:" );
             err( "%s%n",
-                    getCommandsUsage(possibleCommands, argv));
-            return;
+                    getCommandsUsage(_commands._commandMap.getAll( cmdName ), argv));
+            return false;
         }
 
         // Check if we got an unnamed command.
-        selectedCommand = _commandMap.get(
-                UNNAMED,
-                argv.length );
+        selectedCommands = _commands._dispatch.get(
+                UNNAMED );
+        var selectedCommand = selectedCommands == null ?
+                null :
+                selectedCommands.getExact( argv.length );
         if ( selectedCommand != null )
         {
-            _currentCommand =
-                    selectedCommand.getName() ;
-            selectedCommand.execute(
-                    argv );
-            return;
+            setCurrentCommand(
+                    selectedCommand.getName() );
+            return selectedCommand.execute(
+                    this,
+                    argv,
+                    0 );
         }
 
         // No match.
         err( "Unknown command '%s'.%n", cmdName );
+        return false;
     }
 
     private void processProperty( String property )
@@ -409,23 +553,455 @@ public class CliApplication
         {
             wrapIfNeeded( cl.get() ).launch( argv );
         }
-        catch (RuntimeException e)
+        catch (Exception e)
         {
-            String msg = e.getMessage();
-            if (msg == null)
-                msg = e.getClass().getName();
+            reportLaunchException( System.err, e );
+        }
+    }
+
+    /**
+     * Report an exception that terminated a launch.
+     *
+     * @param err The stream to report to.
+     * @param e The exception to report.
+     */
+    private static void reportLaunchException( PrintStream err, Exception e )
+    {
+        String msg = e.getMessage();
+        if (msg == null)
+            msg = e.getClass().getName();
 
+        if ( e instanceof RuntimeException )
+        {
             LOG.log(Level.SEVERE, e.getMessage(), e);
-            e.printStackTrace();
+            e.printStackTrace( err );
         }
-        catch (Exception e)
+        else
         {
-            String msg = e.getMessage();
-            if (msg == null)
-                msg = e.getClass().getName();
-
             LOG.log(Level.FINE, msg, e);
-            System.err.println("Failed: " + msg);
+            err.println("Failed: " + msg);
+        }
+    }
+
+    /**
+     * Executes a sequence of command lines on a single application
+     * instance.  This allows to process many command lines in a single
+     * JVM.  Each line of the passed input is split into arguments
+     * like a command line, see {@link StringUtil#splitQuoted(String)}.
+     * Empty lines and lines starting with '#' are ignored.  Properties
+     * set by a line stay set for the following lines.
+     * <p>
+     * A failing line is reported on the standard error stream with
+     * its line number, and processing continues with the next line.
+     * </p>
+     *
+     * @param cl The implementation class of the console command.
+     * @param commands The command lines to execute.
+     * @return The number of failed command lines.
+     * @throws IOException If reading the command lines failed.
+     */
+    static public int launchBatch( Supplier<?> cl, Reader commands )
+        throws IOException
+    {
+        return wrapIfNeeded( cl.get() ).launchBatch( commands );
+    }
+
+    /**
+     * Executes a sequence of command lines.
+     *
+     * @param commands The command lines to execute.
+     * @return The number of failed command lines.
+     * @throws IOException If reading the command lines failed.
+     */
+    private int launchBatch( Reader commands )
+        throws IOException
+    {
+        var reader = new BufferedReader( commands );
+        int failed = 0;
+        int lineNumber = 0;
+
+        for ( String line = reader.readLine() ;
+                line != null ;
+                line = reader.readLine() )
+        {
+            lineNumber++;
+
+            var argv = StringUtil.splitQuoted( line );
+
+            if ( argv.length == 0 || argv[0].startsWith( "#" ) )
+                continue;
+
+            if ( launchLine( argv ) )
+                continue;
+
+            failed++;
+            reportLineFailure( lineNumber, line );
+        }
+
+        return failed;
+    }
+
+    /**
+     * Executes a sequence of independent command lines in parallel.
+     * The output that the commands write using the out() and err()
+     * operations is buffered per command line and written in the order
+     * of the command lines.  Otherwise this works like
+     * {@link #launchBatch(Supplier, Reader)}.
+     * <p>
+     * The commands run concurrently on the same delegate, so they have
+     * to be thread safe.  Properties set by a line are not reliably
+     * visible to other lines.  Output that is written directly to
+     * System.out or System.err is not ordered.
+     * </p>
+     *
+     * @param cl The implementation class of the console command.
+     * @param commands The command lines to execute.
+     * @param executor The executor running the commands, for example a
+     * fixed thread pool or a virtual thread per task executor.  The
+     * executor is not shut down.
+     * @return The number of failed command lines.
+     * @throws IOException If reading the command lines failed.
+     * @throws InterruptedException If interrupted while waiting for a
+     * command.
+     */
+    static public int launchBatch(
+            Supplier<?> cl,
+            Reader commands,
+            ExecutorService executor )
+        throws IOException, InterruptedException
+    {
+        return wrapIfNeeded( cl.get() ).launchBatch( commands, executor );
+    }
+
+    /**
+     * Executes a sequence of command lines in parallel.
+     *
+     * @param commands The command lines to execute.
+     * @param executor The executor running the commands.
+     * @return The number of failed command lines.
+     * @throws IOException If reading the command lines failed.
+     * @throws InterruptedException If interrupted while waiting for a
+     * command.
+     */
+    private int launchBatch( Reader commands, ExecutorService executor )
+        throws IOException, InterruptedException
+    {
+        var reader = new BufferedReader( commands );
+        var pending = new ArrayDeque<Future<CommandContext>>();
+        int failed = 0;
+        int lineNumber = 0;
+
+        for ( String line = reader.readLine() ;
+                line != null ;
+                line = reader.readLine() )
+        {
+            lineNumber++;
+
+            var argv = StringUtil.splitQuoted( line );
+
+            if ( argv.length == 0 || argv[0].startsWith( "#" ) )
+                continue;
+
+            var context = new CommandContext( lineNumber, line );
+
+            pending.add( executor.submit(
+                    () -> launchLine( context, argv ) ) );
+
+            // Write the completed output in order and limit the
+            // number of pending commands.
+            while ( pending.size() > MAX_PENDING ||
+                    ( ! pending.isEmpty() && pending.peek().isDone() ) )
+                failed += completeLine( pending.remove() );
+        }
+
+        while ( ! pending.isEmpty() )
+            failed += completeLine( pending.remove() );
+
+        return failed;
+    }
+
+    /**
+     * Launch a single command line of a parallel batch.
+     *
+     * @param context The context of the command line.
+     * @param argv The command line.
+     * @return The passed context.
+     */
+    private CommandContext launchLine( CommandContext context, String[] argv )
+    {
+        _context.set( context );
+
+        try
+        {
+            context._success = launchLine( argv );
+        }
+        finally
+        {
+            _context.remove();
+        }
+
+        return context;
+    }
+
+    /**
+     * Wait for a command line of a parallel batch and write its output.
+     *
+     * @param command The command line.
+     * @return 1 if the command line failed, 0 otherwise.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private int completeLine( Future<CommandContext> command )
+        throws InterruptedException
+    {
+        CommandContext context;
+
+        try
+        {
+            context = command.get();
+        }
+        catch ( ExecutionException e )
+        {
+            // Exceptions are handled in launchLine, so this is an Error.
+            var cause = e.getCause();
+            if ( cause instanceof Error )
+                throw (Error)cause;
+            throw new IllegalStateException( cause );
+        }
+
+        context.flushTo( System.out, System.err );
+
+        if ( context._success )
+            return 0;
+
+        reportLineFailure( context._lineNumber, context._line );
+        return 1;
+    }
+
+    /**
+     * Report a failed command line of a batch.
+     *
+     * @param lineNumber The line number.
+     * @param line The line.
+     */
+    private void reportLineFailure( int lineNumber, String line )
+    {
+        err( "Line %d failed: %s%n", lineNumber, line );
+    }
+
+    /**
+     * Launch a single command line of a batch.
+     *
+     * @param argv The command line.
+     * @return {@code true} if the command line was successfully
+     * processed.
+     */
+    private boolean launchLine( String[] argv )
+    {
+        try
+        {
+            return launch( argv );
+        }
+        catch ( Exception e )
+        {
+            reportLaunchException( errStream(), e );
+            return false;
+        }
+    }
+
+    /**
+     * The time a connection has to send the token.
+     */
+    private static final int TOKEN_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Creates a random token for {@link #serve(Supplier, ServerSocket, String)}.
+     *
+     * @return A new token.
+     */
+    static public String createToken()
+    {
+        var bytes = new byte[16];
+        new SecureRandom().nextBytes( bytes );
+        return StringUtil.toHex( bytes );
+    }
+
+    /**
+     * Serves command lines received on a socket on the loopback interface.
+     * This allows to execute many command lines in a single running JVM.
+     * Each connection is served by a daemon thread.  The first line a
+     * connection sends has to be the passed token, otherwise the
+     * connection is rejected.  The following lines are command lines,
+     * see {@link #launchBatch(Supplier, Reader)}.  The connection
+     * receives the output the commands write using the out() and err()
+     * operations until the server closes the connection.  Output that
+     * is written directly to System.out or System.err is not sent.  The
+     * operation returns when the server socket is closed.
+     * <p>
+     * <b>Security:</b> Every process that can connect to the socket and
+     * knows the token can execute the application's commands with the
+     * permissions of this process.  On the loopback interface this
+     * includes all local users.  Keep the token secret, for example in a
+     * file only readable by the owner of the process, and use a new
+     * token per server, see {@link #createToken()}.
+     * </p>
+     *
+     * @param cl The implementation class of the console command.
+     * @param server The server socket to accept connections from.
+     * @param token The token connections have to send.
+     * @throws IOException If the server socket failed.
+     * @throws IllegalArgumentException If the token is empty.
+     */
+    static public void serve( Supplier<?> cl, ServerSocket server, String token )
+        throws IOException
+    {
+        var executor = Executors.newCachedThreadPool( r -> {
+            var result = new Thread( r, "CliApplication.serve" );
+            result.setDaemon( true );
+            return result;
+        } );
+
+        try
+        {
+            serve( cl, server, token, executor );
+        }
+        finally
+        {
+            // Connections in progress are completed.
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Serves command lines received on a socket.  The connections are
+     * served concurrently by the passed executor.  The commands of
+     * different connections run concurrently on the same delegate, so
+     * they have to be thread safe.  Otherwise this works like
+     * {@link #serve(Supplier, ServerSocket, String)}, read its security
+     * note.
+     *
+     * @param cl The implementation class of the console command.
+     * @param server The server socket to accept connections from.
+     * @param token The token connections have to send.
+     * @param executor The executor serving the connections.  The
+     * executor is not shut down.
+     * @throws IOException If the server socket failed.
+     * @throws IllegalArgumentException If the token is empty.
+     */
+    static public void serve(
+            Supplier<?> cl,
+            ServerSocket server,
+            String token,
+            ExecutorService executor )
+        throws IOException
+    {
+        if ( StringUtil.isEmpty( token ) )
+            throw new IllegalArgumentException( "Empty token." );
+
+        var application = wrapIfNeeded( cl.get() );
+        var expected = token.getBytes( StandardCharsets.UTF_8 );
+
+        while ( ! server.isClosed() )
+        {
+            Socket connection;
+
+            try
+            {
+                connection = server.accept();
+            }
+            catch ( IOException e )
+            {
+                if ( server.isClosed() )
+                    return;
+                throw e;
+            }
+
+            try
+            {
+                executor.execute( () -> {
+                    try ( connection )
+                    {
+                        application.serve( connection, expected );
+                    }
+                    catch ( IOException e )
+                    {
+                        LOG.log( Level.WARNING, "Connection failed.", e );
+                    }
+                } );
+            }
+            catch ( RejectedExecutionException e )
+            {
+                JavaUtil.force( connection::close );
+                LOG.log( Level.WARNING, "Connection rejected.", e );
+            }
+        }
+    }
+
+    /**
+     * Serves command lines on the passed port on the loopback
+     * interface.  Does not return.  Read the security note of
+     * {@link #serve(Supplier, ServerSocket, String)}.
+     *
+     * @param cl The implementation class of the console command.
+     * @param port The port to listen on.
+     * @param token The token connections have to send.
+     * @throws IOException If the server socket failed.
+     * @see #serve(Supplier, ServerSocket, String)
+     */
+    static public void serve( Supplier<?> cl, int port, String token )
+        throws IOException
+    {
+        try ( var server = new ServerSocket(
+                port,
+                0,
+                InetAddress.getLoopbackAddress() ) )
+        {
+            serve( cl, server, token );
+        }
+    }
+
+    /**
+     * Executes the command lines received on a connection.  The output
+     * of the commands is written to the connection.
+     *
+     * @param connection The connection.
+     * @param token The expected token.
+     * @throws IOException If the connection failed.
+     */
+    private void serve( Socket connection, byte[] token )
+        throws IOException
+    {
+        var out = new PrintStream(
+                connection.getOutputStream(),
+                true,
+                StandardCharsets.UTF_8 );
+        var reader = new BufferedReader( new InputStreamReader(
+                connection.getInputStream(),
+                StandardCharsets.UTF_8 ) );
+
+        connection.setSoTimeout( TOKEN_TIMEOUT_MILLIS );
+        var received = reader.readLine();
+        connection.setSoTimeout( 0 );
+
+        if ( received == null || ! MessageDigest.isEqual(
+                token,
+                received.getBytes( StandardCharsets.UTF_8 ) ) )
+        {
+            LOG.warning( "Rejected connection from " +
+                    connection.getRemoteSocketAddress() );
+            out.println( "Unauthorized." );
+            return;
+        }
+
+        _context.set( new CommandContext( out, out ) );
+
+        try
+        {
+            launchBatch( reader );
+        }
+        finally
+        {
+            _context.remove();
+            out.flush();
         }
     }
 
@@ -470,7 +1046,7 @@ public class CliApplication
         result.append( "The following commands are supported:" );
         result.append( StringUtil.EOL );
 
-        for ( CommandHolder command : sort( _commandMap.getValues() ) )
+        for ( CommandHolder command : sort( _commands._commandMap.getValues() ) )
             result.append( command.usage() );
 
         if ( ! _propertyMap.isEmpty() )
@@ -503,77 +1079,160 @@ public class CliApplication
     }
 
     /**
-     * Processes the annotations on the target class.
-     * Updates the _commandMap member variable.
+     * Get the command table for a delegate class.
      *
-     * @param method
-     * @param command
+     * @param targetClass The delegate class.
+     * @return The shared command table.
+     */
+    private static CommandTable getCommandTable( Class<?> targetClass )
+    {
+        return _commandTables.get( targetClass );
+    }
+
+    /**
+     * The commands with a common name, indexed by their
+     * number of arguments.
      */
-    private void processAnnotation( Method method, Command command )
+    private static final class Dispatch
     {
-        String name = command.name();
-        if ( StringUtil.isEmpty( name ) )
-            name = method.getName();
+        private CommandHolder[] _byArity =
+                new CommandHolder[0];
 
-        var keyName = name.toLowerCase();
+        private CommandHolder _variadic;
 
-        // Handle variadic argument lists.
+        /**
+         * @param arity The number of arguments.
+         * @return The command for exactly the passed number of
+         * arguments or {@code null}.
+         */
+        CommandHolder getExact( int arity )
         {
-            if ( method.isVarArgs() )
-            {
-                if ( _commandMap.containsKey( keyName, -1 ) ) {
-                    throw new InternalError(
-                            "Implementation error. Variadic operation " +
-                            name +
-                            " is not unique.");
-                }
-
-                _commandMap.put(
-                        keyName,
-                        -1,
-                        new CommandHolder( method ) );
+            if ( arity < _byArity.length )
+                return _byArity[arity];
 
-                return;
-            }
+            return null;
         }
 
-        for ( Class<?> current : method.getParameterTypes() )
+        /**
+         * @param arity The number of arguments.
+         * @return The command for the passed number of arguments, the
+         * variadic command if none is found, or {@code null}.
+         */
+        CommandHolder get( int arity )
         {
-            Objects.requireNonNull(
-                    _converters.getConverter( current ),
-                    "No mapper for " + current );
-        }
+            var result = getExact( arity );
 
-        Integer numberOfArgs =
-                Integer.valueOf( method.getParameterTypes().length );
-
-        // Check if we already have this command with the same parameter
-        // list length. This is an implementation error.
-        if (_commandMap.get(keyName, numberOfArgs) != null) {
-            throw new InternalError(
-                    "Implementation error. Operation " +
-                    name +
-                    " with " +
-                    numberOfArgs +
-                    " parameters is not unique.");
+            if ( result != null )
+                return result;
+
+            return _variadic;
         }
 
-        _commandMap.put(
-                keyName,
-                numberOfArgs,
-                new CommandHolder( method ) );
+        void put( int arity, CommandHolder command )
+        {
+            if ( arity >= _byArity.length )
+                _byArity = Arrays.copyOf( _byArity, arity + 1 );
+
+            _byArity[arity] = command;
+        }
     }
 
     /**
-     * Initialize the {@link #_commandMap}.
+     * The dispatch plan of a delegate class.
      */
-    private void initCommandMap(
-            Class<?> targetClass )
+    private static final class CommandTable
     {
-        ReflectionUtil.processAnnotation(
-                Command.class,
-                targetClass::getDeclaredMethods,
-                this::processAnnotation );
+        /**
+         * A map of all commands implemented by the class. Keys are
+         * command name and number of arguments, the value represents
+         * the respective method.  A variadic command has the number of
+         * arguments -1.
+         */
+        private final MultiMap<String, Integer, CommandHolder> _commandMap =
+                new MultiMap<>();
+
+        /**
+         * Maps the lower case command names to their commands.  Used for
+         * dispatching.
+         */
+        private final Map<String, Dispatch> _dispatch =
+                new HashMap<>();
+
+        CommandTable( Class<?> targetClass )
+        {
+            ReflectionUtil.processAnnotation(
+                    Command.class,
+                    targetClass::getDeclaredMethods,
+                    this::processAnnotation );
+        }
+
+        /**
+         * Processes the annotations on the target class.
+         * Updates the _commandMap member variable.
+         *
+         * @param method
+         * @param command
+         */
+        private void processAnnotation( Method method, Command command )
+        {
+            String name = command.name();
+            if ( StringUtil.isEmpty( name ) )
+                name = method.getName();
+
+            var keyName = name.toLowerCase();
+
+            // Handle variadic argument lists.
+            {
+                if ( method.isVarArgs() )
+                {
+                    if ( _commandMap.containsKey( keyName, -1 ) ) {
+                        throw new InternalError(
+                                "Implementation error. Variadic operation " +
+                                name +
+                                " is not unique.");
+                    }
+
+                    var holder = new CommandHolder( method );
+                    _commandMap.put(
+                            keyName,
+                            -1,
+                            holder );
+                    _dispatch.computeIfAbsent( keyName, k -> new Dispatch() )
+                        ._variadic = holder;
+
+                    return;
+                }
+            }
+
+            for ( Class<?> current : method.getParameterTypes() )
+            {
+                Objects.requireNonNull(
+                        _converters.getConverter( current ),
+                        "No mapper for " + current );
+            }
+
+            Integer numberOfArgs =
+                    Integer.valueOf( method.getParameterTypes().length );
+
+            // Check if we already have this command with the same parameter
+            // list length. This is an implementation error.
+            if (_commandMap.get(keyName, numberOfArgs) != null) {
+                throw new InternalError(
+                        "Implementation error. Operation " +
+                        name +
+                        " with " +
+                        numberOfArgs +
+                        " parameters is not unique.");
+            }
+
+            var holder = new CommandHolder( method );
+            _commandMap.put(
+                    keyName,
+                    numberOfArgs,
+                    holder );
+            _dispatch.computeIfAbsent( keyName, k -> new Dispatch() )
+                .put( numberOfArgs, holder );
+        }
     }
 
     /**
@@ -623,7 +1282,7 @@ public class CliApplication
             // Special handling of implementation or VM errors.
             err( "%s failed.%n",
                     commandName );
-            e.printStackTrace();
+            e.printStackTrace( errStream() );
         }
         else
         {
@@ -650,7 +1309,7 @@ public class CliApplication
         return file;
     }
 
-    private String getEnumDocumentation( Class<?> c )
+    private static String getEnumDocumentation( Class<?> c )
     {
         List<String> enumNames = new ArrayList<>();
 
@@ -735,14 +1394,15 @@ public class CliApplication
     }
 
     /**
-     * Format the parameters to the standard error stream.
+     * Format the parameters to the standard error stream.  In a parallel
+     * batch the output is buffered for the current command.
      *
      * @param fmt The format string.
      * @param argv Format parameters.
      */
     protected final void err( String fmt, Object ... argv )
     {
-        System.err.format( fmt, argv );
+        errStream().format( fmt, argv );
     }
 
     /**
@@ -754,18 +1414,19 @@ public class CliApplication
      */
     protected final void err( String msg )
     {
-        System.err.format( msg );
+        errStream().format( msg );
     }
 
     /**
-     * Format the parameters to the standard output stream.
+     * Format the parameters to the standard output stream.  In a parallel
+     * batch the output is buffered for the current command.
      *
      * @param fmt The format string.
      * @param argv Format parameters.
      */
     protected final void out( String fmt, Object ... argv )
     {
-        System.out.format( fmt, argv );
+        outStream().format( fmt, argv );
     }
 
     /**
@@ -777,7 +1438,7 @@ public class CliApplication
      */
     protected final void out( String msg )
     {
-        System.out.format( msg );
+        outStream().format( msg );
     }
 
     /**
@@ -865,9 +1526,11 @@ public class CliApplication
     }
 
     /**
-     * Encapsulates a command.
+     * Encapsulates a command.  The invocation handle is resolved on
+     * creation.  The argument converters are looked up per execution,
+     * so converters added later are used.
      */
-    private final class CommandHolder implements Comparable<CommandHolder>
+    private static final class CommandHolder implements Comparable<CommandHolder>
     {
         private final Method _op;
         private final Class<?>[] _parameterTypes;
@@ -876,6 +1539,12 @@ public class CliApplication
         private final Class<?> _variadicElementType;
         private final int _variadicIdx;
 
+        /**
+         * Invokes the operation with the signature (Object,Object[])void.
+         * If {@code null} the operation is called reflectively.
+         */
+        private final MethodHandle _invoker;
+
         CommandHolder( Method operation )
         {
             _op =
@@ -899,6 +1568,46 @@ public class CliApplication
                 _variadicElementType = null;
                 _variadicIdx = _parameterTypes.length;
             }
+
+            _invoker =
+                    createInvoker( operation );
+        }
+
+        /**
+         * Create a handle for the passed operation with the signature
+         * (Object,Object[])void.
+         *
+         * @param operation The operation.
+         * @return The handle or {@code null} if the operation is not
+         * accessible.
+         */
+        private static MethodHandle createInvoker( Method operation )
+        {
+            try
+            {
+                if ( ! operation.trySetAccessible() )
+                    return null;
+
+                var result = MethodHandles.lookup()
+                        .unreflect( operation )
+                        .asFixedArity();
+
+                if ( Modifier.isStatic( operation.getModifiers() ) )
+                    result = MethodHandles.dropArguments(
+                            result, 0, Object.class );
+
+                int count = operation.getParameterCount();
+
+                return result
+                        .asType( MethodType.genericMethodType( count + 1 )
+                                .changeReturnType( void.class ) )
+                        .asSpreader( Object[].class, count );
+            }
+            catch ( Exception e )
+            {
+                LOG.log( Level.FINE, operation.toString(), e );
+                return null;
+            }
         }
 
         String getName()
@@ -926,9 +1635,16 @@ public class CliApplication
             return _commandAnnotation.shortDescription();
         }
 
-        private void execute( String... argv )
+        /**
+         * Execute the command.
+         *
+         * @param app The application.
+         * @param argv The command line.
+         * @param offset The position of the first argument in argv.
+         */
+        private boolean execute( CliApplication app, String[] argv, int offset )
         {
-            if ( argv.length < _parameterTypes.length )
+            if ( argv.length - offset < _variadicIdx )
                 throw new IllegalArgumentException();
 
             Object[] arguments =
@@ -937,55 +1653,95 @@ public class CliApplication
             for ( int i = 0; i < _variadicIdx ; i++ ) try {
                 arguments[i] = transformArgument(
                         _parameterTypes[i],
-                        argv[i] );
+                        argv[offset + i] );
             }
             catch ( Exception e ) {
-                err( "Command '%s' failed: Could not convert '%s' to %s.%n",
+                app.err( "Command '%s' failed: Could not convert '%s' to %s.%n",
                         getName(),
-                        argv[i],
+                        argv[offset + i],
                         _parameterTypes[i].getSimpleName());
-                return;
+                return false;
             }
 
             if ( _variadicElementType != null )
             {
+                int first = offset + _variadicIdx;
+
                 var variadicArray = Array.newInstance(
                         _variadicElementType,
-                        argv.length - _variadicIdx );
+                        argv.length - first );
+                // Reference arrays are set directly.
+                var objectArray = _variadicElementType.isPrimitive() ?
+                        null :
+                        (Object[])variadicArray;
 
                 int targetIdx = 0;
-                for ( int i = _variadicIdx ; i < argv.length ; i++ ) try {
-                    Array.set(
-                            variadicArray,
-                            targetIdx++,
-                            transformArgument(
-                                    _variadicElementType,
-                                    argv[i] ) );
+                for ( int i = first ; i < argv.length ; i++ ) try {
+                    var value = transformArgument(
+                            _variadicElementType,
+                            argv[i] );
+                    if ( objectArray != null )
+                        objectArray[targetIdx++] = value;
+                    else
+                        Array.set(
+                                variadicArray,
+                                targetIdx++,
+                                value );
                 }
                 catch ( Exception e ) {
-                    err( "Command '%s' failed: Could not convert '%s' to %s.%n",
+                    app.err( "Command '%s' failed: Could not convert '%s' to %s.%n",
                             getName(),
                             argv[i],
-                            _parameterTypes[i].getSimpleName());
-                    return;
+                            _variadicElementType.getSimpleName());
+                    return false;
                 }
 
                 arguments[_variadicIdx] = variadicArray;
             }
 
+            final var self = app._delegate;
+
             try {
-                final var self = CliApplication.this._delegate;
+                if ( _invoker == null )
+                    return invokeReflective( app, self, arguments );
 
+                _invoker.invokeExact( self, arguments );
+                return true;
+            }
+            catch ( Throwable e )
+            {
+                app.processCommandException( _op.getName(), e );
+                return false;
+            }
+            finally
+            {
+                // In case a parameter conversion operation created
+                // 'closeable' objects, ensure that these get freed.
+                for ( Object c : arguments )
+                {
+                    if ( c instanceof AutoCloseable )
+                        JavaUtil.force( ((AutoCloseable)c)::close );
+                }
+            }
+        }
+
+        private boolean invokeReflective(
+                CliApplication app,
+                Object self,
+                Object[] arguments )
+        {
+            try {
                 if ( ! _op.canAccess( self ) )
                     _op.setAccessible( true );
 
                 _op.invoke(
                         self,
                         arguments);
+                return true;
             }
             catch ( InvocationTargetException e )
             {
-                processCommandException( _op.getName(), e.getCause() );
+                app.processCommandException( _op.getName(), e.getCause() );
             }
             catch ( Exception e )
             {
@@ -993,16 +1749,7 @@ public class CliApplication
                 // so we present a less user friendly stacktrace.
                 e.printStackTrace();
             }
-            finally
-            {
-                // In case a parameter conversion operation created
-                // 'closeable' objects, ensure that these get freed.
-                for ( Object c : arguments )
-                {
-                    if ( c instanceof AutoCloseable )
-                        JavaUtil.force( ((AutoCloseable)c)::close );
-                }
-            }
+            return false;
         }
 
         private String getParameterList()
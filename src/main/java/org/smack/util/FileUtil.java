@@ -13,14 +13,39 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.util.Comparator;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Vector;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.swing.filechooser.FileFilter;
 
@@ -48,26 +73,249 @@ public final class FileUtil
      */
     public static File[] resolveDirectories( File[] files )
     {
-        Vector<File> fs = new Vector<>();
+        List<File> fs = new ArrayList<>();
 
+        resolveDirectories( files, fs );
+
+        return fs.toArray( new File[fs.size()] );
+    }
+
+    private static void resolveDirectories( File[] files, List<File> result )
+    {
         for ( File file : files )
         {
             if ( file.isDirectory() )
             {
                 File[] dirContents = file.listFiles();
-                if ( dirContents != null && dirContents.length > 0 )
+                if ( dirContents != null )
+                    resolveDirectories( dirContents, result );
+            }
+            else
+            {
+                result.add( file );
+            }
+        }
+    }
+
+    /**
+     * Lazily streams the files in a directory tree.  Directories are
+     * not part of the result.  Symbolic links are not followed.  The
+     * returned stream has to be closed.
+     *
+     * @param root The root of the tree.  If this is a file, then the
+     * result contains at most this file.
+     * @param maxDepth The maximum number of directory levels to visit.
+     * Zero only checks the root.
+     * @param maxCount The maximum number of returned files.
+     * @param filter Selects the returned files.  Called during the walk.
+     * @return The stream of files.
+     * @throws IOException If the root cannot be accessed.
+     * @see Files#find
+     */
+    public static Stream<Path> streamFiles(
+            Path root,
+            int maxDepth,
+            long maxCount,
+            BiPredicate<Path, BasicFileAttributes> filter )
+        throws IOException
+    {
+        return Files.find(
+                root,
+                maxDepth,
+                (p,a) -> ! a.isDirectory() && filter.test( p, a ) )
+            .limit( maxCount );
+    }
+
+    /**
+     * Lazily streams all files in a directory tree.  The returned stream
+     * has to be closed.
+     *
+     * @param root The root of the tree.
+     * @param filter Selects the returned files.
+     * @return The stream of files.
+     * @throws IOException If the root cannot be accessed.
+     * @see #streamFiles(Path, int, long, BiPredicate)
+     */
+    public static Stream<Path> streamFiles(
+            Path root,
+            BiPredicate<Path, BasicFileAttributes> filter )
+        throws IOException
+    {
+        return streamFiles( root, Integer.MAX_VALUE, Long.MAX_VALUE, filter );
+    }
+
+    /**
+     * The state shared by the tasks of a parallel search.
+     */
+    private static final class FindContext
+    {
+        final int _maxDepth;
+        final long _maxCount;
+        final BiPredicate<Path, BasicFileAttributes> _filter;
+
+        final Queue<Path> _result = new ConcurrentLinkedQueue<>();
+        final AtomicLong _count = new AtomicLong();
+
+        FindContext(
+                int maxDepth,
+                long maxCount,
+                BiPredicate<Path, BasicFileAttributes> filter )
+        {
+            _maxDepth = maxDepth;
+            _maxCount = maxCount;
+            _filter = filter;
+        }
+
+        boolean isDone()
+        {
+            return _count.get() >= _maxCount;
+        }
+
+        void test( Path path, BasicFileAttributes attributes )
+        {
+            if ( ! _filter.test( path, attributes ) )
+                return;
+
+            if ( _count.getAndIncrement() < _maxCount )
+                _result.add( path );
+        }
+    }
+
+    /**
+     * Searches a directory.  Forks a task per sub directory.
+     */
+    @SuppressWarnings("serial")
+    private static final class FindTask extends RecursiveAction
+    {
+        private final Path _directory;
+        private final int _depth;
+        private final FindContext _context;
+
+        FindTask( Path directory, int depth, FindContext context )
+        {
+            _directory = directory;
+            _depth = depth;
+            _context = context;
+        }
+
+        @Override
+        protected void compute()
+        {
+            var subTasks = new ArrayList<FindTask>();
+
+            try ( var entries = Files.newDirectoryStream( _directory ) )
+            {
+                for ( var c : entries )
                 {
-                    for ( File c : resolveDirectories( dirContents ) )
-                        fs.add( c );
+                    if ( _context.isDone() )
+                        break;
+
+                    BasicFileAttributes attributes;
+                    try
+                    {
+                        attributes = Files.readAttributes(
+                                c,
+                                BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS );
+                    }
+                    catch ( NoSuchFileException e )
+                    {
+                        // Deleted during the search.
+                        continue;
+                    }
+
+                    if ( ! attributes.isDirectory() )
+                        _context.test( c, attributes );
+                    else if ( _depth + 1 < _context._maxDepth )
+                        subTasks.add(
+                                new FindTask( c, _depth + 1, _context ) );
                 }
             }
-            else
+            catch ( NoSuchFileException e )
+            {
+                // Deleted during the search.
+                return;
+            }
+            catch ( DirectoryIteratorException e )
+            {
+                if ( e.getCause() instanceof NoSuchFileException )
+                    return;
+                throw new UncheckedIOException( e.getCause() );
+            }
+            catch ( IOException e )
             {
-                fs.add( file );
+                throw new UncheckedIOException( e );
             }
+
+            invokeAll( subTasks );
         }
+    }
 
-        return fs.toArray( new File[fs.size()] );
+    /**
+     * Searches the files in a directory tree in parallel.  Directories
+     * are not part of the result.  Symbolic links are not followed.
+     * Files and directories deleted during the search are skipped.
+     *
+     * @param root The root of the tree.  If this is a file, then the
+     * result contains at most this file.
+     * @param maxDepth The maximum number of directory levels to visit.
+     * Zero only checks the root.
+     * @param maxCount The maximum number of returned files.
+     * @param filter Selects the returned files.  Called concurrently
+     * during the walk.
+     * @return The files in no specific order.
+     * @throws IOException If a directory cannot be read.
+     */
+    public static List<Path> findFiles(
+            Path root,
+            int maxDepth,
+            long maxCount,
+            BiPredicate<Path, BasicFileAttributes> filter )
+        throws IOException
+    {
+        if ( maxDepth < 0 )
+            throw new IllegalArgumentException( "maxDepth must be >= 0" );
+
+        var context = new FindContext( maxDepth, maxCount, filter );
+
+        var attributes = Files.readAttributes(
+                root,
+                BasicFileAttributes.class,
+                LinkOption.NOFOLLOW_LINKS );
+
+        if ( ! attributes.isDirectory() )
+            context.test( root, attributes );
+        else if ( maxDepth > 0 )
+        {
+            try
+            {
+                ForkJoinPool.commonPool().invoke(
+                        new FindTask( root, 0, context ) );
+            }
+            catch ( UncheckedIOException e )
+            {
+                throw e.getCause();
+            }
+        }
+
+        return new ArrayList<>( context._result );
+    }
+
+    /**
+     * Searches all files in a directory tree in parallel.
+     *
+     * @param root The root of the tree.
+     * @param filter Selects the returned files.
+     * @return The files in no specific order.
+     * @throws IOException If a directory cannot be read.
+     * @see #findFiles(Path, int, long, BiPredicate)
+     */
+    public static List<Path> findFiles(
+            Path root,
+            BiPredicate<Path, BasicFileAttributes> filter )
+        throws IOException
+    {
+        return findFiles( root, Integer.MAX_VALUE, Long.MAX_VALUE, filter );
     }
 
     /**
@@ -90,7 +338,7 @@ public final class FileUtil
      */
     public static File[] filterFiles( File[] files, FileFilter filter )
     {
-        Vector<File> collector = new Vector<>( files.length );
+        List<File> collector = new ArrayList<>( files.length );
 
         for ( File f : files )
         {
@@ -188,7 +436,22 @@ public final class FileUtil
     }
 
     /**
-     * Read all lines from a file into a list.
+     * Read all lines from an stream into a list. Closes the stream.
+     *
+     * @param in The reader to use.
+     * @param cs The character set of the stream.
+     * @return The lines read without EOL characters.
+     * @throws IOException In case of an error.
+     */
+    public static List<String> readLines( InputStream in, Charset cs )
+        throws IOException
+    {
+        return readLines(
+                new InputStreamReader( in, cs ) );
+    }
+
+    /**
+     * Read all lines from a UTF-8 encoded file into a list.
      *
      * @param in The file to use.
      * @return The lines read without EOL characters.
@@ -196,7 +459,285 @@ public final class FileUtil
      */
     public static List<String> readLines( File in ) throws IOException
     {
-        return Files.lines( in.toPath() ).collect( Collectors.toList() );
+        return readLines( in, StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Read all lines from a file into a list.
+     *
+     * @param in The file to use.
+     * @param cs The character set of the file.
+     * @return The lines read without EOL characters.
+     * @throws IOException In case of an error.
+     */
+    public static List<String> readLines( File in, Charset cs )
+        throws IOException
+    {
+        try ( var lines = Files.lines( in.toPath(), cs ) )
+        {
+            return lines.collect( Collectors.toList() );
+        }
+        catch ( UncheckedIOException e )
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The maximum size of a mapped file region.
+     */
+    private static final int MAX_REGION_SIZE = 1 << 30;
+
+    /**
+     * The minimum number of bytes a line spliterator splits.
+     */
+    private static final int MIN_SPLIT_SIZE = 64 * 1024;
+
+    /**
+     * A line in an ISO-8859-1 encoded buffer.  Reads the characters
+     * directly from the buffer.
+     */
+    private static final class Latin1Line implements CharSequence
+    {
+        private final ByteBuffer _buffer;
+        private final int _offset;
+        private final int _length;
+
+        Latin1Line( ByteBuffer buffer, int offset, int length )
+        {
+            _buffer = buffer;
+            _offset = offset;
+            _length = length;
+        }
+
+        @Override
+        public int length()
+        {
+            return _length;
+        }
+
+        @Override
+        public char charAt( int index )
+        {
+            if ( index < 0 || index >= _length )
+                throw new IndexOutOfBoundsException( index );
+
+            return (char)(_buffer.get( _offset + index ) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence( int start, int end )
+        {
+            if ( start < 0 || end > _length || start > end )
+                throw new IndexOutOfBoundsException();
+
+            return new Latin1Line( _buffer, _offset + start, end - start );
+        }
+
+        @Override
+        public String toString()
+        {
+            var bytes = new byte[_length];
+            _buffer.duplicate().position( _offset ).get( bytes );
+            return new String( bytes, StandardCharsets.ISO_8859_1 );
+        }
+    }
+
+    /**
+     * Splits a mapped file region into lines.  Splits at line
+     * boundaries for parallel processing.
+     */
+    private static final class LineSpliterator
+        implements Spliterator<CharSequence>
+    {
+        private final ByteBuffer _buffer;
+        private final Charset _cs;
+        private CharsetDecoder _decoder;
+        private int _position;
+        private final int _end;
+
+        LineSpliterator( ByteBuffer buffer, Charset cs, int position, int end )
+        {
+            _buffer = buffer;
+            _cs = cs;
+            _position = position;
+            _end = end;
+        }
+
+        /**
+         * @return The position of the next newline starting at the passed
+         * position, or the end.
+         */
+        private int findNewline( int position )
+        {
+            while ( position < _end && _buffer.get( position ) != '\n' )
+                position++;
+
+            return position;
+        }
+
+        private CharSequence line( int begin, int end )
+        {
+            if ( _cs.equals( StandardCharsets.ISO_8859_1 ) )
+                return new Latin1Line( _buffer, begin, end - begin );
+
+            if ( _decoder == null )
+                _decoder = _cs.newDecoder()
+                    .onMalformedInput( CodingErrorAction.REPLACE )
+                    .onUnmappableCharacter( CodingErrorAction.REPLACE );
+
+            try
+            {
+                return _decoder.decode(
+                        _buffer.duplicate().position( begin ).limit( end ) );
+            }
+            catch ( IOException e )
+            {
+                // Not thrown, errors are replaced.
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        @Override
+        public boolean tryAdvance( Consumer<? super CharSequence> action )
+        {
+            if ( _position >= _end )
+                return false;
+
+            int newline = findNewline( _position );
+            int end = newline;
+
+            if ( end > _position && _buffer.get( end - 1 ) == '\r' )
+                end--;
+
+            action.accept( line( _position, end ) );
+
+            _position = newline + 1;
+            return true;
+        }
+
+        @Override
+        public Spliterator<CharSequence> trySplit()
+        {
+            if ( _end - _position < MIN_SPLIT_SIZE )
+                return null;
+
+            int split = findNewline( _position + (_end - _position) / 2 ) + 1;
+            if ( split >= _end )
+                return null;
+
+            var result = new LineSpliterator( _buffer, _cs, _position, split );
+            _position = split;
+            return result;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return _end - _position;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * @return The lines of the passed regions.
+     */
+    private static Stream<CharSequence> lines(
+            ByteBuffer[] regions,
+            Charset cs,
+            int from,
+            int to )
+    {
+        if ( to - from == 1 )
+            return StreamSupport.stream(
+                    new LineSpliterator(
+                            regions[from],
+                            cs,
+                            0,
+                            regions[from].limit() ),
+                    false );
+
+        int mid = (from + to) / 2;
+
+        // Balanced to keep the nesting flat.
+        return Stream.concat(
+                lines( regions, cs, from, mid ),
+                lines( regions, cs, mid, to ) );
+    }
+
+    /**
+     * Get the lines of a file based on a memory mapping.  This supports
+     * large files and parallel processing.  Lines are separated by
+     * '\n' or "\r\n".  The file is closed when this method returns, the
+     * mapping is released by garbage collection.
+     * <p>
+     * ISO-8859-1 lines are views on the mapped file.  Lines in other
+     * character sets are decoded on access.  Malformed input is
+     * replaced.
+     * </p>
+     *
+     * @param file The file to read.
+     * @param cs The character set of the file.  The newline character
+     * has to be encoded as a single byte that is not part of other
+     * characters' encodings, as in UTF-8 or the ISO-8859 family.
+     * @return The lines.  The stream is sequential, use
+     * {@link Stream#parallel()} for parallel processing.
+     * @throws IOException If the file cannot be mapped or contains a
+     * line longer than 1 GB.
+     */
+    public static Stream<CharSequence> lines( Path file, Charset cs )
+        throws IOException
+    {
+        if ( ! Arrays.equals(
+                new byte[] { '\n' },
+                "\n".getBytes( cs ) ) )
+            throw new IllegalArgumentException( "Unsupported charset: " + cs );
+
+        var regions = new ArrayList<ByteBuffer>();
+
+        try ( var channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            long size = channel.size();
+
+            for ( long start = 0 ; start < size ; )
+            {
+                long length = Math.min( size - start, MAX_REGION_SIZE );
+
+                var region = channel.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        start,
+                        length );
+
+                // Regions end after a newline.
+                if ( start + length < size )
+                {
+                    int end = (int)length;
+                    while ( end > 0 && region.get( end - 1 ) != '\n' )
+                        end--;
+                    if ( end == 0 )
+                        throw new IOException( "Line too long: " + file );
+                    region.limit( end );
+                    length = end;
+                }
+
+                regions.add( region );
+                start += length;
+            }
+        }
+
+        if ( regions.isEmpty() )
+            return Stream.empty();
+
+        return lines(
+                regions.toArray( new ByteBuffer[regions.size()] ),
+                cs,
+                0,
+                regions.size() );
     }
 
     /**
@@ -207,26 +748,306 @@ public final class FileUtil
      */
     public static boolean delete( File dir )
     {
-        if ( ! dir.exists() )
-            return true;
+        var result = deleteTree( dir.toPath(), 1 );
+
+        for ( var c : result.getFailed() )
+            LOG.log( Level.WARNING, "Failed to delete: " + c );
+
+        return result.isSuccess();
+    }
+
+    /**
+     * The result of a {@link FileUtil#deleteTree(Path, int)} operation.
+     */
+    public static final class DeleteResult
+    {
+        private final LongAdder _files = new LongAdder();
+        private final LongAdder _directories = new LongAdder();
+        private final LongAdder _bytes = new LongAdder();
+        private final Queue<Path> _failed = new ConcurrentLinkedQueue<>();
+
+        private DeleteResult()
+        {
+        }
+
+        /**
+         * @return The number of deleted files including symbolic links.
+         */
+        public long getFileCount()
+        {
+            return _files.sum();
+        }
+
+        /**
+         * @return The number of deleted directories.
+         */
+        public long getDirectoryCount()
+        {
+            return _directories.sum();
+        }
+
+        /**
+         * @return The size of the deleted files.
+         */
+        public long getBytesFreed()
+        {
+            return _bytes.sum();
+        }
+
+        /**
+         * @return The paths that could not be deleted or visited.
+         */
+        public List<Path> getFailed()
+        {
+            return Collections.unmodifiableList( new ArrayList<>( _failed ) );
+        }
+
+        /**
+         * @return {@code true} if all paths were deleted.
+         */
+        public boolean isSuccess()
+        {
+            return _failed.isEmpty();
+        }
+
+        private void delete( Path path, BasicFileAttributes attributes )
+        {
+            try
+            {
+                Files.delete( path );
+            }
+            catch ( NoSuchFileException e )
+            {
+                return;
+            }
+            catch ( IOException e )
+            {
+                _failed.add( path );
+                return;
+            }
+
+            if ( attributes.isDirectory() )
+                _directories.increment();
+            else
+            {
+                _files.increment();
+                if ( attributes.isRegularFile() )
+                    _bytes.add( attributes.size() );
+            }
+        }
+    }
 
+    /**
+     * Deletes a directory sequentially in post-order.
+     */
+    private static final class DeleteVisitor extends SimpleFileVisitor<Path>
+    {
+        private final DeleteResult _result;
+
+        DeleteVisitor( DeleteResult result )
+        {
+            _result = result;
+        }
+
+        @Override
+        public FileVisitResult visitFile(
+                Path file,
+                BasicFileAttributes attributes )
+        {
+            _result.delete( file, attributes );
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed( Path file, IOException e )
+        {
+            if ( ! (e instanceof NoSuchFileException) )
+                _result._failed.add( file );
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory( Path dir, IOException e )
+        {
+            if ( e == null )
+            {
+                try
+                {
+                    _result.delete(
+                            dir,
+                            Files.readAttributes(
+                                    dir,
+                                    BasicFileAttributes.class,
+                                    LinkOption.NOFOLLOW_LINKS ) );
+                    return FileVisitResult.CONTINUE;
+                }
+                catch ( IOException ee )
+                {
+                    e = ee;
+                }
+            }
+
+            if ( ! (e instanceof NoSuchFileException) )
+                _result._failed.add( dir );
+            return FileVisitResult.CONTINUE;
+        }
+    }
+
+    /**
+     * Deletes a directory.  Forks a task per sub directory and deletes
+     * the directory after the tasks completed.
+     */
+    @SuppressWarnings("serial")
+    private static final class DeleteTask extends RecursiveAction
+    {
+        private final Path _directory;
+        private final BasicFileAttributes _attributes;
+        private final DeleteResult _result;
+
+        DeleteTask(
+                Path directory,
+                BasicFileAttributes attributes,
+                DeleteResult result )
+        {
+            _directory = directory;
+            _attributes = attributes;
+            _result = result;
+        }
+
+        @Override
+        protected void compute()
+        {
+            var subTasks = new ArrayList<DeleteTask>();
+
+            try ( var entries = Files.newDirectoryStream( _directory ) )
+            {
+                for ( var c : entries )
+                {
+                    BasicFileAttributes attributes;
+                    try
+                    {
+                        attributes = Files.readAttributes(
+                                c,
+                                BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS );
+                    }
+                    catch ( NoSuchFileException e )
+                    {
+                        continue;
+                    }
+
+                    if ( attributes.isDirectory() )
+                        subTasks.add(
+                                new DeleteTask( c, attributes, _result ) );
+                    else
+                        _result.delete( c, attributes );
+                }
+            }
+            catch ( NoSuchFileException e )
+            {
+                // Deleted concurrently.
+                return;
+            }
+            catch ( DirectoryIteratorException e )
+            {
+                if ( ! (e.getCause() instanceof NoSuchFileException) )
+                    _result._failed.add( _directory );
+                return;
+            }
+            catch ( IOException e )
+            {
+                _result._failed.add( _directory );
+                return;
+            }
+
+            invokeAll( subTasks );
+
+            _result.delete( _directory, _attributes );
+        }
+    }
+
+    /**
+     * Deletes a file or a directory tree.  Symbolic links are deleted,
+     * not followed.  The deletion continues if single paths cannot be
+     * deleted.
+     *
+     * @param root The file or directory to delete.  It is no failure if
+     * this does not exist.
+     * @param parallelism The maximum number of threads deleting sub
+     * directories in parallel.  If one, then the tree is deleted by the
+     * calling thread.
+     * @return The result of the operation.
+     */
+    public static DeleteResult deleteTree( Path root, int parallelism )
+    {
+        if ( parallelism <= 0 )
+            throw new IllegalArgumentException( "parallelism must be > 0" );
+
+        var result = new DeleteResult();
+
+        BasicFileAttributes attributes;
+        try
+        {
+            attributes = Files.readAttributes(
+                    root,
+                    BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS );
+        }
+        catch ( NoSuchFileException e )
+        {
+            return result;
+        }
+        catch ( IOException e )
+        {
+            result._failed.add( root );
+            return result;
+        }
+
+        if ( ! attributes.isDirectory() )
+        {
+            result.delete( root, attributes );
+            return result;
+        }
+
+        if ( parallelism == 1 )
+        {
+            try
+            {
+                Files.walkFileTree( root, new DeleteVisitor( result ) );
+            }
+            catch ( IOException e )
+            {
+                result._failed.add( root );
+            }
+            return result;
+        }
+
+        var pool = new ForkJoinPool( parallelism );
         try
         {
-            Files.walk( dir.toPath() )
-                .sorted( Comparator.reverseOrder() )
-                .map( Path::toFile )
-                .forEach( File::delete );
+            pool.invoke( new DeleteTask( root, attributes, result ) );
         }
-        catch ( Exception e )
+        finally
         {
-            LOG.log(
-                    Level.WARNING,
-                    "Failed to delete: " + dir.getPath(),
-                    e );
-            return false;
+            pool.shutdown();
         }
 
-        return ! dir.exists();
+        return result;
+    }
+
+    /**
+     * Deletes a file or a directory tree in parallel using one thread
+     * per available processor.
+     *
+     * @param root The file or directory to delete.
+     * @return The result of the operation.
+     * @see #deleteTree(Path, int)
+     */
+    public static DeleteResult deleteTree( Path root )
+    {
+        return deleteTree(
+                root,
+                Runtime.getRuntime().availableProcessors() );
     }
 
     /**
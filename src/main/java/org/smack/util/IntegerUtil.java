@@ -7,9 +7,14 @@
  */
 package org.smack.util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Support classes for working with integer values.  Note that in the
@@ -49,7 +54,7 @@ public class IntegerUtil
      */
     public static long toLong( Endianness endianness, byte[] bytes, int startIdx )
     {
-        return endianness.toLong( bytes, Long.SIZE, startIdx );
+        return endianness.read( bytes, Long.SIZE, startIdx );
     }
 
     /**
@@ -81,7 +86,7 @@ public class IntegerUtil
      */
     public static int toInt( Endianness endianness, byte[] bytes, int startIdx )
     {
-        return (int)endianness.toLong( bytes, Integer.SIZE, startIdx );
+        return (int)endianness.read( bytes, Integer.SIZE, startIdx );
     }
 
     /**
@@ -113,7 +118,7 @@ public class IntegerUtil
      */
     public static short toShort( Endianness endianness, byte[] bytes, int startIdx )
     {
-        return (short)endianness.toLong( bytes, Short.SIZE, startIdx );
+        return (short)endianness.read( bytes, Short.SIZE, startIdx );
     }
 
     /**
@@ -160,7 +165,7 @@ public class IntegerUtil
                     requiredBytes,
                     remainingLengthFromStartIdx ) );
 
-        return endianness.toLong( bytes, bitCount, startIdx );
+        return endianness.read( bytes, bitCount, startIdx );
     }
 
     /**
@@ -190,7 +195,7 @@ public class IntegerUtil
      */
     public static void fromLong( Endianness endianness, long value, byte[] target, int targetIdx )
     {
-        endianness.fromLong( value, Long.SIZE, target, targetIdx );
+        endianness.write( value, Long.SIZE, target, targetIdx );
     }
 
     /**
@@ -217,7 +222,7 @@ public class IntegerUtil
         if ( (bitCount % 8) != 0  )
             throw new IllegalArgumentException( "bitCount not multiple of eight: " + bitCount );
 
-        endianness.fromLong( value, bitCount, target, targetIdx );
+        endianness.write( value, bitCount, target, targetIdx );
     }
 
     /**
@@ -247,7 +252,7 @@ public class IntegerUtil
      */
     public static void fromInt( Endianness endianness, int value, byte[] target, int targetIdx )
     {
-        endianness.fromLong( value, Integer.SIZE, target, targetIdx );
+        endianness.write( value, Integer.SIZE, target, targetIdx );
     }
 
     /**
@@ -277,7 +282,227 @@ public class IntegerUtil
      */
     public static void fromShort( Endianness endianness, short value, byte[] target, int targetIdx )
     {
-        endianness.fromLong( value, Short.SIZE, target, targetIdx );
+        endianness.write( value, Short.SIZE, target, targetIdx );
+    }
+
+    /**
+     * Convert a range of bytes into an array of integer primitives.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param bytes The source buffer.
+     * @param startIdx The index of the first byte to convert.
+     * @param target The array receiving the result.
+     * @param targetIdx The first index written in the target array.
+     * @param count The number of values to convert.
+     * @throws IndexOutOfBoundsException If a range exceeds its array.
+     */
+    public static void toInts(
+            Endianness endianness,
+            byte[] bytes,
+            int startIdx,
+            int[] target,
+            int targetIdx,
+            int count )
+    {
+        Objects.checkFromIndexSize( startIdx, count * Integer.BYTES, bytes.length );
+        Objects.checkFromIndexSize( targetIdx, count, target.length );
+
+        for ( int i = 0 ; i < count ; i++ )
+            target[targetIdx + i] =
+                endianness.getInt( bytes, startIdx + i * Integer.BYTES );
+    }
+
+    /**
+     * Convert a range of bytes into an array of integer primitives.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param bytes The source buffer.
+     * @param startIdx The index of the first byte to convert.
+     * @param target The array receiving the result.
+     * @param targetIdx The first index written in the target array.
+     * @param count The number of values to convert.
+     * @throws IndexOutOfBoundsException If a range exceeds its array.
+     */
+    public static void toLongs(
+            Endianness endianness,
+            byte[] bytes,
+            int startIdx,
+            long[] target,
+            int targetIdx,
+            int count )
+    {
+        Objects.checkFromIndexSize( startIdx, count * Long.BYTES, bytes.length );
+        Objects.checkFromIndexSize( targetIdx, count, target.length );
+
+        for ( int i = 0 ; i < count ; i++ )
+            target[targetIdx + i] =
+                endianness.getLong( bytes, startIdx + i * Long.BYTES );
+    }
+
+    /**
+     * Convert bytes from a buffer into an array of integer primitives.
+     * The byte order of the buffer is ignored, its position is advanced
+     * by the number of bytes read.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param bytes The source buffer.
+     * @param target The array receiving the result.
+     * @param targetIdx The first index written in the target array.
+     * @param count The number of values to convert.
+     * @throws java.nio.BufferUnderflowException If the buffer holds less
+     * than the requested number of values.
+     */
+    public static void toInts(
+            Endianness endianness,
+            ByteBuffer bytes,
+            int[] target,
+            int targetIdx,
+            int count )
+    {
+        bytes.duplicate()
+            .order( endianness.order() )
+            .asIntBuffer()
+            .get( target, targetIdx, count );
+        bytes.position( bytes.position() + count * Integer.BYTES );
+    }
+
+    /**
+     * Convert bytes from a buffer into an array of integer primitives.
+     * The byte order of the buffer is ignored, its position is advanced
+     * by the number of bytes read.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param bytes The source buffer.
+     * @param target The array receiving the result.
+     * @param targetIdx The first index written in the target array.
+     * @param count The number of values to convert.
+     * @throws java.nio.BufferUnderflowException If the buffer holds less
+     * than the requested number of values.
+     */
+    public static void toLongs(
+            Endianness endianness,
+            ByteBuffer bytes,
+            long[] target,
+            int targetIdx,
+            int count )
+    {
+        bytes.duplicate()
+            .order( endianness.order() )
+            .asLongBuffer()
+            .get( target, targetIdx, count );
+        bytes.position( bytes.position() + count * Long.BYTES );
+    }
+
+    /**
+     * Convert a range of integer primitives into bytes.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param values The values to convert.
+     * @param valuesIdx The index of the first value to convert.
+     * @param count The number of values to convert.
+     * @param target The buffer receiving the result.
+     * @param targetIdx The first index used when writing into the target buffer.
+     * @throws IndexOutOfBoundsException If a range exceeds its array.
+     */
+    public static void fromInts(
+            Endianness endianness,
+            int[] values,
+            int valuesIdx,
+            int count,
+            byte[] target,
+            int targetIdx )
+    {
+        Objects.checkFromIndexSize( valuesIdx, count, values.length );
+        Objects.checkFromIndexSize( targetIdx, count * Integer.BYTES, target.length );
+
+        for ( int i = 0 ; i < count ; i++ )
+            endianness.putInt(
+                    values[valuesIdx + i],
+                    target,
+                    targetIdx + i * Integer.BYTES );
+    }
+
+    /**
+     * Convert a range of integer primitives into bytes.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param values The values to convert.
+     * @param valuesIdx The index of the first value to convert.
+     * @param count The number of values to convert.
+     * @param target The buffer receiving the result.
+     * @param targetIdx The first index used when writing into the target buffer.
+     * @throws IndexOutOfBoundsException If a range exceeds its array.
+     */
+    public static void fromLongs(
+            Endianness endianness,
+            long[] values,
+            int valuesIdx,
+            int count,
+            byte[] target,
+            int targetIdx )
+    {
+        Objects.checkFromIndexSize( valuesIdx, count, values.length );
+        Objects.checkFromIndexSize( targetIdx, count * Long.BYTES, target.length );
+
+        for ( int i = 0 ; i < count ; i++ )
+            endianness.putLong(
+                    values[valuesIdx + i],
+                    target,
+                    targetIdx + i * Long.BYTES );
+    }
+
+    /**
+     * Convert a range of integer primitives into a buffer.  The byte order
+     * of the buffer is ignored, its position is advanced by the number
+     * of bytes written.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param values The values to convert.
+     * @param valuesIdx The index of the first value to convert.
+     * @param count The number of values to convert.
+     * @param target The buffer receiving the result.
+     * @throws java.nio.BufferOverflowException If the buffer has not enough
+     * space remaining.
+     */
+    public static void fromInts(
+            Endianness endianness,
+            int[] values,
+            int valuesIdx,
+            int count,
+            ByteBuffer target )
+    {
+        target.duplicate()
+            .order( endianness.order() )
+            .asIntBuffer()
+            .put( values, valuesIdx, count );
+        target.position( target.position() + count * Integer.BYTES );
+    }
+
+    /**
+     * Convert a range of integer primitives into a buffer.  The byte order
+     * of the buffer is ignored, its position is advanced by the number
+     * of bytes written.
+     *
+     * @param endianness One of the constants {@link #Big} or {@link #Little}.
+     * @param values The values to convert.
+     * @param valuesIdx The index of the first value to convert.
+     * @param count The number of values to convert.
+     * @param target The buffer receiving the result.
+     * @throws java.nio.BufferOverflowException If the buffer has not enough
+     * space remaining.
+     */
+    public static void fromLongs(
+            Endianness endianness,
+            long[] values,
+            int valuesIdx,
+            int count,
+            ByteBuffer target )
+    {
+        target.duplicate()
+            .order( endianness.order() )
+            .asLongBuffer()
+            .put( values, valuesIdx, count );
+        target.position( target.position() + count * Long.BYTES );
     }
 
     /**
@@ -349,15 +574,12 @@ public class IntegerUtil
 
         byte[] result = new byte[ numberOfBytes ];
 
-        for ( int i = 0 ; i < numberOfBytes ; i++ )
-        {
-            // Two hex digits must fit into a byte.  Note that
-            // Byte.parseByte( x, 16 ) cannot parse numbers
-            // above 128. Fails with 88, AA, etc.
-            result[i] = (byte)Integer.parseInt(
-                    spayload.substring( i*2, (i*2) + 2 ),
-                    16 );
-        }
+        StringUtil.decodeHex(
+                spayload,
+                0,
+                spayload.length(),
+                result,
+                0 );
 
         return result;
     }
@@ -406,14 +628,20 @@ public class IntegerUtil
      */
     public static String toHexString ( byte[] array )
     {
-        List<String> strings = new ArrayList<>( array.length );
+        if ( array.length == 0 )
+            return StringUtil.EMPTY_STRING;
+
+        // "0x" and two digits per byte separated by a space.
+        var result = new StringBuilder( 5 * array.length - 1 );
 
-        for ( byte c : array )
+        for ( int i = 0 ; i < array.length ; i++ )
         {
-            strings.add( String.format( "0x%02x", c ));
+            if ( i > 0 )
+                result.append( ' ' );
+            StringUtil.appendHex( result.append( "0x" ), array, i, 1 );
         }
 
-        return StringUtil.concatenate( " ", strings );
+        return result.toString();
     }
 
     /**
@@ -437,6 +665,65 @@ public class IntegerUtil
         {
         }
 
+        /**
+         * @return The byte order corresponding to this endianness.
+         */
+        public abstract ByteOrder order();
+
+        abstract short getShort( byte[] bytes, int startIdx );
+        abstract int getInt( byte[] bytes, int startIdx );
+        abstract long getLong( byte[] bytes, int startIdx );
+        abstract void putShort( short value, byte[] target, int startIdx );
+        abstract void putInt( int value, byte[] target, int startIdx );
+        abstract void putLong( long value, byte[] target, int startIdx );
+
+        /**
+         * Like {@link #toLong(byte[], int, int)}, but uses the view
+         * handles for the primitive widths if the buffer holds enough bytes.
+         */
+        final long read( byte[] bytes, int maxbits, int startIdx )
+        {
+            if ( startIdx >= 0 && bytes.length - startIdx >= maxbits / Byte.SIZE )
+            {
+                switch ( maxbits )
+                {
+                case Short.SIZE:
+                    return getShort( bytes, startIdx ) & 0xffffL;
+                case Integer.SIZE:
+                    return getInt( bytes, startIdx ) & 0xffff_ffffL;
+                case Long.SIZE:
+                    return getLong( bytes, startIdx );
+                }
+            }
+
+            return toLong( bytes, maxbits, startIdx );
+        }
+
+        /**
+         * Like {@link #fromLong(long, int, byte[], int)}, but uses the view
+         * handles for the primitive widths if the buffer holds enough bytes.
+         */
+        final void write( long value, int validBits, byte[] target, int startIdx )
+        {
+            if ( startIdx >= 0 && target.length - startIdx >= validBits / Byte.SIZE )
+            {
+                switch ( validBits )
+                {
+                case Short.SIZE:
+                    putShort( (short)value, target, startIdx );
+                    return;
+                case Integer.SIZE:
+                    putInt( (int)value, target, startIdx );
+                    return;
+                case Long.SIZE:
+                    putLong( value, target, startIdx );
+                    return;
+                }
+            }
+
+            fromLong( value, validBits, target, startIdx );
+        }
+
         /**
          * Make a primitive long based on the passed parameters.
          * @param bytes The buffer holding the bytes to use.
@@ -457,6 +744,483 @@ public class IntegerUtil
         abstract void fromLong( long value, int validBits, byte[] target, int startIdx );
     }
 
+    /**
+     * A precompiled layout of bit fields in a binary record.  Decodes
+     * all fields of a record into a {@code long[]} or encodes them from
+     * one in a single pass.  Masks and positions are computed once when
+     * the layout is built.
+     * <p>
+     * For {@link IntegerUtil#Big} bit offset zero is the most significant
+     * bit of the first byte as common in network protocols.  For
+     * {@link IntegerUtil#Little} it is the least significant bit of the
+     * first byte.
+     * </p>
+     * Instances are immutable and thread safe.
+     */
+    public static final class BitLayout
+    {
+        private final boolean _big;
+        private final Endianness _endianness;
+        private final int _byteCount;
+        private final int _bitCount;
+
+        /**
+         * Per field: The field's bit offset and width.
+         */
+        private final int[] _offsets;
+        private final int[] _widths;
+
+        /**
+         * Per field: The index of the first byte, the bit position in
+         * this byte, and the number of bytes touched.
+         */
+        private final int[] _byteIdx;
+        private final int[] _bitIdx;
+        private final int[] _spans;
+
+        /**
+         * Per field: The shift aligning the field to the most significant
+         * bit, and the mask of the valid bits.
+         */
+        private final int[] _alignShifts;
+        private final long[] _masks;
+        private final boolean[] _signed;
+
+        private BitLayout( Builder builder )
+        {
+            int count = builder._fields.size();
+
+            _endianness = builder._endianness;
+            _big = _endianness == Big;
+            _offsets = new int[count];
+            _widths = new int[count];
+            _byteIdx = new int[count];
+            _bitIdx = new int[count];
+            _spans = new int[count];
+            _alignShifts = new int[count];
+            _masks = new long[count];
+            _signed = new boolean[count];
+
+            int bitCount = builder._position;
+
+            for ( int i = 0 ; i < count ; i++ )
+            {
+                var field = builder._fields.get( i );
+                int offset = field[0];
+                int width = field[1];
+
+                _offsets[i] = offset;
+                _widths[i] = width;
+                _signed[i] = field[2] != 0;
+                _byteIdx[i] = offset / Byte.SIZE;
+                _bitIdx[i] = offset % Byte.SIZE;
+                _spans[i] = (_bitIdx[i] + width + Byte.SIZE - 1) / Byte.SIZE;
+                _alignShifts[i] = Long.SIZE - width;
+                _masks[i] = getMask( width );
+
+                bitCount = Math.max( bitCount, offset + width );
+            }
+
+            _bitCount = bitCount;
+            _byteCount = (bitCount + Byte.SIZE - 1) / Byte.SIZE;
+        }
+
+        /**
+         * @return The endianness of the layout.
+         */
+        public Endianness getEndianness()
+        {
+            return _endianness;
+        }
+
+        /**
+         * @return The number of fields.
+         */
+        public int getFieldCount()
+        {
+            return _offsets.length;
+        }
+
+        /**
+         * @return The number of bits covered by the layout, including
+         * skipped bits.
+         */
+        public int getBitCount()
+        {
+            return _bitCount;
+        }
+
+        /**
+         * @return The size of a record in bytes.  This is also the
+         * distance of records in the batch operations.
+         */
+        public int getByteCount()
+        {
+            return _byteCount;
+        }
+
+        /**
+         * @param field The field index.
+         * @return The bit offset of the field.
+         */
+        public int getOffset( int field )
+        {
+            return _offsets[field];
+        }
+
+        /**
+         * @param field The field index.
+         * @return The bit width of the field.
+         */
+        public int getWidth( int field )
+        {
+            return _widths[field];
+        }
+
+        /**
+         * @param field The field index.
+         * @return True if the field is sign extended when decoded.
+         */
+        public boolean isSigned( int field )
+        {
+            return _signed[field];
+        }
+
+        /**
+         * Decode the fields of a record.
+         *
+         * @param record The buffer holding the record.
+         * @param recordIdx The index of the record in the buffer.
+         * @param target Receives the field values in field order.
+         * @param targetIdx The index receiving the first field.
+         * @throws IndexOutOfBoundsException If a range exceeds its array.
+         */
+        public void decode( byte[] record, int recordIdx, long[] target, int targetIdx )
+        {
+            decode( record, recordIdx, 1, target, targetIdx );
+        }
+
+        /**
+         * Decode consecutive records.
+         *
+         * @param records The buffer holding the records.
+         * @param recordsIdx The index of the first record in the buffer.
+         * @param count The number of records to decode.
+         * @param target Receives the field values in field and record order.
+         * @param targetIdx The index receiving the first field.
+         * @throws IndexOutOfBoundsException If a range exceeds its array.
+         */
+        public void decode(
+                byte[] records,
+                int recordsIdx,
+                int count,
+                long[] target,
+                int targetIdx )
+        {
+            int fieldCount = _offsets.length;
+
+            Objects.checkFromIndexSize( recordsIdx, count * _byteCount, records.length );
+            Objects.checkFromIndexSize( targetIdx, count * fieldCount, target.length );
+
+            for ( int r = 0 ; r < count ; r++ )
+            {
+                int base = recordsIdx + r * _byteCount;
+
+                for ( int i = 0 ; i < fieldCount ; i++ )
+                    target[targetIdx++] = decodeField( records, base, i );
+            }
+        }
+
+        private long decodeField( byte[] bytes, int base, int i )
+        {
+            int idx = base + _byteIdx[i];
+            int bit = _bitIdx[i];
+
+            long window = idx + Long.BYTES <= bytes.length ?
+                    _endianness.getLong( bytes, idx ) :
+                    window( bytes, idx );
+
+            if ( _big )
+            {
+                long chunk = window << bit;
+                if ( _spans[i] > Long.BYTES )
+                    chunk |= (bytes[idx + Long.BYTES] & 0xff) >>> (Byte.SIZE - bit);
+
+                return _signed[i] ?
+                        chunk >> _alignShifts[i] :
+                        chunk >>> _alignShifts[i];
+            }
+
+            long chunk = window >>> bit;
+            if ( _spans[i] > Long.BYTES )
+                chunk |= (long)(bytes[idx + Long.BYTES] & 0xff) << (Long.SIZE - bit);
+
+            return _signed[i] ?
+                    (chunk << _alignShifts[i]) >> _alignShifts[i] :
+                    chunk & _masks[i];
+        }
+
+        /**
+         * Reads the up to eight bytes available at the end of a buffer.
+         */
+        private long window( byte[] bytes, int idx )
+        {
+            long result = 0;
+            int count = Math.min( Long.BYTES, bytes.length - idx );
+
+            for ( int k = 0 ; k < count ; k++ )
+            {
+                long b = bytes[idx + k] & 0xff;
+                result |= _big ?
+                        b << (Long.SIZE - Byte.SIZE - k * Byte.SIZE) :
+                        b << (k * Byte.SIZE);
+            }
+
+            return result;
+        }
+
+        /**
+         * Encode the fields of a record.  Values are truncated to the
+         * field widths.  Bits not covered by a field are set to zero.
+         *
+         * @param values The field values in field order.
+         * @param valuesIdx The index of the first field.
+         * @param target The buffer receiving the record.
+         * @param targetIdx The index of the record in the buffer.
+         * @throws IndexOutOfBoundsException If a range exceeds its array.
+         */
+        public void encode( long[] values, int valuesIdx, byte[] target, int targetIdx )
+        {
+            encode( values, valuesIdx, 1, target, targetIdx );
+        }
+
+        /**
+         * Encode consecutive records.  Values are truncated to the
+         * field widths.  Bits not covered by a field are set to zero.
+         *
+         * @param values The field values in field and record order.
+         * @param valuesIdx The index of the first field.
+         * @param count The number of records to encode.
+         * @param target The buffer receiving the records.
+         * @param targetIdx The index of the first record in the buffer.
+         * @throws IndexOutOfBoundsException If a range exceeds its array.
+         */
+        public void encode(
+                long[] values,
+                int valuesIdx,
+                int count,
+                byte[] target,
+                int targetIdx )
+        {
+            int fieldCount = _offsets.length;
+
+            Objects.checkFromIndexSize( valuesIdx, count * fieldCount, values.length );
+            Objects.checkFromIndexSize( targetIdx, count * _byteCount, target.length );
+
+            Arrays.fill( target, targetIdx, targetIdx + count * _byteCount, (byte)0 );
+
+            for ( int r = 0 ; r < count ; r++ )
+            {
+                int base = targetIdx + r * _byteCount;
+
+                for ( int i = 0 ; i < fieldCount ; i++ )
+                    encodeField( values[valuesIdx++], target, base, i );
+            }
+        }
+
+        private void encodeField( long value, byte[] target, int base, int i )
+        {
+            int idx = base + _byteIdx[i];
+            int bit = _bitIdx[i];
+            int spans = _spans[i];
+
+            value &= _masks[i];
+
+            // The field bits for the first eight bytes and the ninth byte.
+            long first;
+            long ninth;
+
+            if ( _big )
+            {
+                long aligned = value << _alignShifts[i];
+                first = aligned >>> bit;
+                ninth = bit == 0 ? 0 : aligned << (Long.SIZE - bit);
+            }
+            else
+            {
+                first = value << bit;
+                ninth = bit == 0 ? 0 : value >>> (Long.SIZE - bit);
+            }
+
+            for ( int k = 0 ; k < spans && k < Long.BYTES ; k++ )
+            {
+                target[idx + k] |= _big ?
+                        (byte)(first >>> (Long.SIZE - Byte.SIZE - k * Byte.SIZE)) :
+                        (byte)(first >>> (k * Byte.SIZE));
+            }
+
+            if ( spans > Long.BYTES )
+                target[idx + Long.BYTES] |= _big ?
+                        (byte)(ninth >>> (Long.SIZE - Byte.SIZE)) :
+                        (byte)ninth;
+        }
+
+        @Override
+        public String toString()
+        {
+            var result = new StringBuilder( _endianness.toString() );
+
+            for ( int i = 0 ; i < _offsets.length ; i++ )
+                result.append( String.format(
+                        " %s%d@%d",
+                        _signed[i] ? "s" : "u",
+                        _widths[i],
+                        _offsets[i] ) );
+
+            return result.toString();
+        }
+
+        /**
+         * Collects the fields of a {@link BitLayout}.
+         */
+        public static final class Builder
+        {
+            private final Endianness _endianness;
+
+            /**
+             * Offset, width and signedness per field.
+             */
+            private final List<int[]> _fields = new ArrayList<>();
+
+            /**
+             * The offset of the next appended field.
+             */
+            private int _position;
+
+            /**
+             * @param endianness One of the constants {@link IntegerUtil#Big}
+             * or {@link IntegerUtil#Little}.
+             */
+            public Builder( Endianness endianness )
+            {
+                _endianness = Objects.requireNonNull( endianness );
+            }
+
+            /**
+             * Appends a field after the previous field.
+             *
+             * @param width The field width in bits, 1 to 64.
+             * @param signed True if the field is sign extended on decode.
+             * @return This builder.
+             * @throws IllegalArgumentException If the width is out of range
+             * or the field overlaps another field.
+             */
+            public Builder field( int width, boolean signed )
+            {
+                return field( _position, width, signed );
+            }
+
+            /**
+             * Adds a field at an explicit bit offset.
+             *
+             * @param offset The bit offset of the field.
+             * @param width The field width in bits, 1 to 64.
+             * @param signed True if the field is sign extended on decode.
+             * @return This builder.
+             * @throws IllegalArgumentException If the offset or width are out
+             * of range or the field overlaps another field.
+             */
+            public Builder field( int offset, int width, boolean signed )
+            {
+                if ( offset < 0 )
+                    throw new IllegalArgumentException(
+                            "Negative offset: " + offset );
+                if ( width < 1 || width > Long.SIZE )
+                    throw new IllegalArgumentException(
+                            "Width not in [1.." + Long.SIZE + "]: " + width );
+
+                for ( var c : _fields )
+                {
+                    if ( offset < c[0] + c[1] && c[0] < offset + width )
+                        throw new IllegalArgumentException( String.format(
+                                "Field %d@%d overlaps field %d@%d.",
+                                width,
+                                offset,
+                                c[1],
+                                c[0] ) );
+                }
+
+                _fields.add( new int[] { offset, width, signed ? 1 : 0 } );
+                _position = offset + width;
+
+                return this;
+            }
+
+            /**
+             * Appends an unsigned field after the previous field.
+             *
+             * @param width The field width in bits, 1 to 64.
+             * @return This builder.
+             */
+            public Builder unsigned( int width )
+            {
+                return field( width, false );
+            }
+
+            /**
+             * Appends a signed field after the previous field.
+             *
+             * @param width The field width in bits, 1 to 64.
+             * @return This builder.
+             */
+            public Builder signed( int width )
+            {
+                return field( width, true );
+            }
+
+            /**
+             * Skips unused bits.
+             *
+             * @param bits The number of bits to skip.
+             * @return This builder.
+             */
+            public Builder skip( int bits )
+            {
+                if ( bits < 0 )
+                    throw new IllegalArgumentException(
+                            "Negative skip: " + bits );
+
+                _position += bits;
+
+                return this;
+            }
+
+            /**
+             * @return The compiled layout.
+             */
+            public BitLayout build()
+            {
+                return new BitLayout( this );
+            }
+        }
+    }
+
+    /**
+     * Views on byte arrays for the primitive widths.
+     */
+    private static final VarHandle LITTLE_SHORT =
+            MethodHandles.byteArrayViewVarHandle( short[].class, ByteOrder.LITTLE_ENDIAN );
+    private static final VarHandle LITTLE_INT =
+            MethodHandles.byteArrayViewVarHandle( int[].class, ByteOrder.LITTLE_ENDIAN );
+    private static final VarHandle LITTLE_LONG =
+            MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.LITTLE_ENDIAN );
+    private static final VarHandle BIG_SHORT =
+            MethodHandles.byteArrayViewVarHandle( short[].class, ByteOrder.BIG_ENDIAN );
+    private static final VarHandle BIG_INT =
+            MethodHandles.byteArrayViewVarHandle( int[].class, ByteOrder.BIG_ENDIAN );
+    private static final VarHandle BIG_LONG =
+            MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.BIG_ENDIAN );
+
     /**
      * Constant used with the byte array integer conversions for Little endian.
      */
@@ -510,6 +1274,48 @@ public class IntegerUtil
             }
         }
 
+        @Override
+        public ByteOrder order()
+        {
+            return ByteOrder.LITTLE_ENDIAN;
+        }
+
+        @Override
+        short getShort( byte[] bytes, int startIdx )
+        {
+            return (short)LITTLE_SHORT.get( bytes, startIdx );
+        }
+
+        @Override
+        int getInt( byte[] bytes, int startIdx )
+        {
+            return (int)LITTLE_INT.get( bytes, startIdx );
+        }
+
+        @Override
+        long getLong( byte[] bytes, int startIdx )
+        {
+            return (long)LITTLE_LONG.get( bytes, startIdx );
+        }
+
+        @Override
+        void putShort( short value, byte[] target, int startIdx )
+        {
+            LITTLE_SHORT.set( target, startIdx, value );
+        }
+
+        @Override
+        void putInt( int value, byte[] target, int startIdx )
+        {
+            LITTLE_INT.set( target, startIdx, value );
+        }
+
+        @Override
+        void putLong( long value, byte[] target, int startIdx )
+        {
+            LITTLE_LONG.set( target, startIdx, value );
+        }
+
         @Override
         public String toString()
         {
@@ -549,6 +1355,48 @@ public class IntegerUtil
             Little.fromLong( intermediate, bits, target, startIdx );
         }
 
+        @Override
+        public ByteOrder order()
+        {
+            return ByteOrder.BIG_ENDIAN;
+        }
+
+        @Override
+        short getShort( byte[] bytes, int startIdx )
+        {
+            return (short)BIG_SHORT.get( bytes, startIdx );
+        }
+
+        @Override
+        int getInt( byte[] bytes, int startIdx )
+        {
+            return (int)BIG_INT.get( bytes, startIdx );
+        }
+
+        @Override
+        long getLong( byte[] bytes, int startIdx )
+        {
+            return (long)BIG_LONG.get( bytes, startIdx );
+        }
+
+        @Override
+        void putShort( short value, byte[] target, int startIdx )
+        {
+            BIG_SHORT.set( target, startIdx, value );
+        }
+
+        @Override
+        void putInt( int value, byte[] target, int startIdx )
+        {
+            BIG_INT.set( target, startIdx, value );
+        }
+
+        @Override
+        void putLong( long value, byte[] target, int startIdx )
+        {
+            BIG_LONG.set( target, startIdx, value );
+        }
+
         @Override
         public String toString()
         {
@@ -8,6 +8,7 @@ package org.smack.util;
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
+import java.util.Arrays;
 import java.util.Objects;
 
 
@@ -51,7 +52,7 @@ public class MathUtil
     public static double computePolynomial( double x, double[] c )
     {
         Objects.requireNonNull( c );
-        if ( c.length < 0 )
+        if ( c.length < 1 )
             throw new IllegalArgumentException( "Length of c less than one." );
 
         double result = c[0];
@@ -62,6 +63,102 @@ public class MathUtil
         return result;
     }
 
+    /**
+     * The number of samples processed per block in the batch operations.
+     * Keeps the block of results in the first level cache while the
+     * factors are applied.
+     */
+    private static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Computes the values of the polynomial with the factors from c for
+     * a range of x values.  The implementation uses the Horner-algorithm
+     * and delivers the same results as {@link #computePolynomial(double, double[])}.
+     * The inner loops are simple enough to be vectorized by the JIT.
+     *
+     * @param xs The values x used for the polynomial.
+     * @param xsIdx The index of the first x.
+     * @param c The polynomial factors from n to 0. This is required, the
+     * length of the array has to be at least one.
+     * @param out Receives p(x) for each x.  May be the same array as xs,
+     * also with overlapping ranges.
+     * @param outIdx The index receiving the first result.
+     * @param count The number of values to compute.
+     * @throws IndexOutOfBoundsException If a range exceeds its array.
+     */
+    public static void computePolynomial(
+            double[] xs,
+            int xsIdx,
+            double[] c,
+            double[] out,
+            int outIdx,
+            int count )
+    {
+        Objects.requireNonNull( c );
+        if ( c.length < 1 )
+            throw new IllegalArgumentException( "Length of c less than one." );
+        Objects.checkFromIndexSize( xsIdx, count, xs.length );
+        Objects.checkFromIndexSize( outIdx, count, out.length );
+
+        if ( xs == out && xsIdx != outIdx &&
+                xsIdx < outIdx + count && outIdx < xsIdx + count )
+        {
+            // Overlapping ranges at different offsets.  Results of a
+            // block would overwrite x values of a later block.
+            xs = Arrays.copyOfRange( xs, xsIdx, xsIdx + count );
+            xsIdx = 0;
+        }
+
+        // If the ranges are identical the x values of a block are
+        // saved before the results overwrite them.
+        double[] scratch = xs == out ?
+                new double[Math.min( count, BLOCK_SIZE )] :
+                null;
+
+        for ( int block = 0 ; block < count ; block += BLOCK_SIZE )
+        {
+            int length = Math.min( BLOCK_SIZE, count - block );
+            int o = outIdx + block;
+
+            double[] x = xs;
+            int xo = xsIdx + block;
+
+            if ( scratch != null )
+            {
+                System.arraycopy( xs, xo, scratch, 0, length );
+                x = scratch;
+                xo = 0;
+            }
+
+            double c0 = c[0];
+            for ( int i = 0 ; i < length ; i++ )
+                out[o + i] = c0;
+
+            for ( int k = 1 ; k < c.length ; k++ )
+            {
+                double ck = c[k];
+                for ( int i = 0 ; i < length ; i++ )
+                    out[o + i] = x[xo + i] * out[o + i] + ck;
+            }
+        }
+    }
+
+    /**
+     * Computes the values of the polynomial with the factors from c for
+     * an array of x values.
+     *
+     * @param xs The values x used for the polynomial.
+     * @param c The polynomial factors from n to 0. This is required, the
+     * length of the array has to be at least one.
+     * @param out Receives p(x) for each x.  Must be at least as long
+     * as xs.  May be the same array as xs.
+     * @see #computePolynomial(double[], int, double[], double[], int, int)
+     */
+    public static void computePolynomial( double[] xs, double[] c, double[] out )
+    {
+        computePolynomial( xs, 0, c, out, 0, xs.length );
+    }
+
     /**
      * Round a double to an integer.
      *
@@ -129,6 +226,108 @@ public class MathUtil
         return Math.hypot( a, b );
     }
 
+    /**
+     * Compute the distances between pairs of points a and b.  Other than
+     * {@link #distance(double, double, double, double)} this does not
+     * guard against intermediate overflow for coordinate differences
+     * beyond 1e154, which allows the JIT to vectorize the loop.
+     *
+     * @param ax The x coordinates of the points a.
+     * @param ay The y coordinates of the points a.
+     * @param bx The x coordinates of the points b.
+     * @param by The y coordinates of the points b.
+     * @param out Receives the distances.
+     * @param count The number of point pairs starting at index zero.
+     * @throws IndexOutOfBoundsException If an array is shorter than count.
+     */
+    public static void distance(
+            double[] ax,
+            double[] ay,
+            double[] bx,
+            double[] by,
+            double[] out,
+            int count )
+    {
+        Objects.checkFromIndexSize( 0, count, ax.length );
+        Objects.checkFromIndexSize( 0, count, ay.length );
+        Objects.checkFromIndexSize( 0, count, bx.length );
+        Objects.checkFromIndexSize( 0, count, by.length );
+        Objects.checkFromIndexSize( 0, count, out.length );
+
+        for ( int i = 0 ; i < count ; i++ )
+        {
+            double a = ax[i] - bx[i];
+            double b = ay[i] - by[i];
+            out[i] = Math.sqrt( a * a + b * b );
+        }
+    }
+
+    /**
+     * Compute the distances between a point p and an array of points.
+     *
+     * @param px The x coordinate of point p.
+     * @param py The y coordinate of point p.
+     * @param xs The x coordinates of the points.
+     * @param ys The y coordinates of the points.
+     * @param out Receives the distances.
+     * @param count The number of points starting at index zero.
+     * @throws IndexOutOfBoundsException If an array is shorter than count.
+     * @see #distance(double[], double[], double[], double[], double[], int)
+     */
+    public static void distance(
+            double px,
+            double py,
+            double[] xs,
+            double[] ys,
+            double[] out,
+            int count )
+    {
+        Objects.checkFromIndexSize( 0, count, xs.length );
+        Objects.checkFromIndexSize( 0, count, ys.length );
+        Objects.checkFromIndexSize( 0, count, out.length );
+
+        for ( int i = 0 ; i < count ; i++ )
+        {
+            double a = xs[i] - px;
+            double b = ys[i] - py;
+            out[i] = Math.sqrt( a * a + b * b );
+        }
+    }
+
+    /**
+     * Compute the integer distances between pairs of points a and b.
+     *
+     * @param ax The x coordinates of the points a.
+     * @param ay The y coordinates of the points a.
+     * @param bx The x coordinates of the points b.
+     * @param by The y coordinates of the points b.
+     * @param out Receives the distances.
+     * @param count The number of point pairs starting at index zero.
+     * @throws IndexOutOfBoundsException If an array is shorter than count.
+     */
+    public static void distanceInt(
+            int[] ax,
+            int[] ay,
+            int[] bx,
+            int[] by,
+            int[] out,
+            int count )
+    {
+        Objects.checkFromIndexSize( 0, count, ax.length );
+        Objects.checkFromIndexSize( 0, count, ay.length );
+        Objects.checkFromIndexSize( 0, count, bx.length );
+        Objects.checkFromIndexSize( 0, count, by.length );
+        Objects.checkFromIndexSize( 0, count, out.length );
+
+        for ( int i = 0 ; i < count ; i++ )
+        {
+            // The same int arithmetic as the single point version.
+            double a = ax[i] - bx[i];
+            double b = ay[i] - by[i];
+            out[i] = (int)Math.round( Math.sqrt( a * a + b * b ) );
+        }
+    }
+
     /**
      * Pythagoras is a^2 + b^2 = c^2.  This operation computes b from a and c,
      * i.e. returns sqrt( c^2 - a^2 ).  Note that this same can be used to
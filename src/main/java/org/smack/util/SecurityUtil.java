@@ -12,6 +12,7 @@ import java.io.FileWriter;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.InvalidKeyException;
+import java.security.Key;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Signature;
@@ -40,6 +41,91 @@ public class SecurityUtil
     private final static String PROVIDER =
             "SunRsaSign";
 
+    /**
+     * Initializes an engine with a key.
+     */
+    @FunctionalInterface
+    private interface KeyInit<K extends Key>
+    {
+        void init( K key ) throws InvalidKeyException;
+    }
+
+    /**
+     * A per thread {@link Signature} or {@link Cipher} together with the
+     * key it was last initialized with.  Both return to their initialized
+     * state after completing an operation, so using the engine again
+     * with the same key needs no new initialization.  Only used for
+     * public keys, private keys are not kept beyond an operation.
+     */
+    private static final class Engine<T>
+    {
+        private final T _engine;
+
+        /**
+         * The key of the last successful initialization, null if the
+         * engine is in an unknown state.
+         */
+        private Key _key;
+
+        Engine( T engine )
+        {
+            _engine = engine;
+        }
+
+        /**
+         * @return The engine, initialized with the passed key.
+         */
+        <K extends Key> T init( K key, KeyInit<K> init )
+            throws InvalidKeyException
+        {
+            if ( _key != key )
+            {
+                _key = null;
+                init.init( key );
+                _key = key;
+            }
+
+            return _engine;
+        }
+
+        /**
+         * Forces a new initialization on the next use.  Called if an
+         * operation failed.
+         */
+        void reset()
+        {
+            _key = null;
+        }
+    }
+
+    private static Signature newSignature()
+    {
+        try
+        {
+            return Signature.getInstance( ALGORITHM, PROVIDER );
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private static final ThreadLocal<Engine<Signature>> VERIFIERS =
+            ThreadLocal.withInitial( () -> new Engine<>( newSignature() ) );
+
+    /**
+     * The verify and decrypt operations keep their {@link Signature} and
+     * {@link Cipher} instances per thread, together with the last used
+     * public keys.  This releases the instances and key references held
+     * for the calling thread, for example before a pooled thread is
+     * returned.
+     */
+    public static void releaseEngines()
+    {
+        VERIFIERS.remove();
+        DECRYPTERS.remove();
+    }
+
     /**
      * Check if the passed data has a valid signature.
      *
@@ -53,25 +139,18 @@ public class SecurityUtil
             byte[] data,
             byte[] signature )
     {
-        Signature sig = JavaUtil.make( () -> {
-            try
-            {
-                return Signature.getInstance(ALGORITHM, PROVIDER);
-            }
-            catch (Exception e) {
-                throw new RuntimeException( e );
-            }
-        });
+        var engine = VERIFIERS.get();
 
         try
         {
-            sig.initVerify( pub );
+            Signature sig = engine.init( pub, engine._engine::initVerify );
             sig.update( data );
 
             return sig.verify( signature );
         }
         catch ( Exception e )
         {
+            engine.reset();
             return false;
         }
     }
@@ -201,6 +280,9 @@ public class SecurityUtil
         }
     }
 
+    private static final ThreadLocal<Engine<Cipher>> DECRYPTERS =
+            ThreadLocal.withInitial( () -> new Engine<>( getCipher( CIPHER_ALGORITHM ) ) );
+
     /**
      * Encrypt the passed data.
      *
@@ -260,16 +342,21 @@ public class SecurityUtil
                 InvalidKeyException,
                 DecryptionFailed
     {
-        Cipher cipher = getCipher( CIPHER_ALGORITHM );
+        Objects.requireNonNull( key );
 
-        cipher.init(
-                Cipher.DECRYPT_MODE, Objects.requireNonNull( key ) );
+        var engine = DECRYPTERS.get();
+
+        Cipher cipher = engine.init(
+                key,
+                k -> engine._engine.init( Cipher.DECRYPT_MODE, k ) );
 
         try {
             return cipher.doFinal( encryptedData );
         }
         catch ( Exception e )
         {
+            engine.reset();
+
             // Convert the technical exceptions to a simpler exception
             // that signals that the decryption failed.
             throw new DecryptionFailed( e );
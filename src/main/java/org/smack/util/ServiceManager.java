@@ -9,23 +9,81 @@ package org.smack.util;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Management of ApplicationServices.
+ * <p>
+ * Access to an existing service does not lock.  Missing services are
+ * created holding a single global lock.  Services commonly request other
+ * services in their constructors, so locks per service type could
+ * deadlock if two threads create services requesting each other.
+ * </p>
  *
  * @version $Rev$
  * @author Michael Binz
  */
 public final class ServiceManager
 {
+    /**
+     * Holds the lazily created instance of a single service type.
+     */
+    private static final class ServiceHolder
+    {
+        /**
+         * The service instance, {@code null} as long as the service
+         * is not created.
+         */
+        private volatile Object _instance;
+
+        /**
+         * Get the service instance, create it if needed.
+         *
+         * @param singletonType The service type.
+         * @return The service instance.
+         */
+        Object get( Class<?> singletonType )
+        {
+            synchronized ( CREATION_LOCK )
+            {
+                if ( _instance == null )
+                    _instance = createService( singletonType );
+
+                return _instance;
+            }
+        }
+
+        /**
+         * Set the service instance.
+         *
+         * @param instance The instance to set.
+         * @return {@code false} if the holder already contained an
+         * instance.
+         */
+        boolean init( Object instance )
+        {
+            synchronized ( CREATION_LOCK )
+            {
+                if ( _instance != null )
+                    return false;
+
+                _instance = instance;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Guards the creation of services.
+     */
+    private static final Object CREATION_LOCK = new Object();
+
     /**
      * The map of singular application services.
      */
-    private static final Map<Class<?>, Object> _singletons =
-            new HashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ServiceHolder> _singletons =
+            new ConcurrentHashMap<>();
 
     /**
      * Create an instance.
@@ -38,7 +96,7 @@ public final class ServiceManager
     /**
      * Used in testing.
      */
-    public static synchronized void clear()
+    public static void clear()
     {
         _singletons.clear();
     }
@@ -50,36 +108,59 @@ public final class ServiceManager
      * @param singletonType The class of the application service.
      * @return An instance of the requested service.
      */
-    public static synchronized <T> T getApplicationService( Class<T> singletonType )
+    public static <T> T getApplicationService( Class<T> singletonType )
     {
-        if ( ! _singletons.containsKey( singletonType ) )
+        var holder = _singletons.get( singletonType );
+
+        if ( holder != null )
         {
-            try
-            {
-                _singletons.put(
-                        singletonType,
-                        ReflectionUtil.createInstanceX( singletonType ) );
-            }
-            catch ( RuntimeException e )
-            {
-                throw e;
-            }
-            catch ( InvocationTargetException e )
-            {
-                var cause = e.getCause();
+            var result = holder._instance;
 
-                if ( cause instanceof RuntimeException )
-                    throw (RuntimeException)cause;
+            if ( result != null )
+                return singletonType.cast( result );
+        }
+        else
+        {
+            // Only the holder is created in the map.  The service is
+            // created outside the map since services commonly request
+            // other services in their constructors.
+            holder = _singletons.computeIfAbsent(
+                    singletonType,
+                    c -> new ServiceHolder() );
+        }
 
-                throw new RuntimeException( e );
-            }
-            catch ( Exception e )
-            {
-                throw new RuntimeException( e );
-            }
+        return singletonType.cast( holder.get( singletonType ) );
+    }
+
+    /**
+     * Create a service instance.
+     *
+     * @param singletonType The class of the application service.
+     * @return The new service instance.
+     */
+    private static Object createService( Class<?> singletonType )
+    {
+        try
+        {
+            return ReflectionUtil.createInstanceX( singletonType );
         }
+        catch ( RuntimeException e )
+        {
+            throw e;
+        }
+        catch ( InvocationTargetException e )
+        {
+            var cause = e.getCause();
 
-        return singletonType.cast( _singletons.get( singletonType ) );
+            if ( cause instanceof RuntimeException )
+                throw (RuntimeException)cause;
+
+            throw new RuntimeException( e );
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( e );
+        }
     }
 
     /**
@@ -89,7 +170,7 @@ public final class ServiceManager
      * @param <T> The service type.
      * @return An instance of the requested service.
      */
-    public static synchronized <T> T initApplicationService( T singletonInstance )
+    public static <T> T initApplicationService( T singletonInstance )
     {
         @SuppressWarnings("unchecked")
         Class<T> c = (Class<T>)singletonInstance.getClass();
@@ -106,16 +187,18 @@ public final class ServiceManager
      * to the passed class.
      * @return A service instance.
      */
-    public static synchronized <T> T initApplicationService( Class<T> clazz, T singletonInstance )
+    public static <T> T initApplicationService( Class<T> clazz, T singletonInstance )
     {
         for ( Class<?> c : computeClassRange( clazz, singletonInstance.getClass() ) )
         {
-            if ( _singletons.containsKey( c ) )
+            var holder = _singletons.computeIfAbsent(
+                    c,
+                    k -> new ServiceHolder() );
+
+            if ( ! holder.init( singletonInstance ) )
                 throw new IllegalArgumentException(
                         "Already initialized: " +
-                        _singletons.get( c ) );
-
-            _singletons.put( c, singletonInstance );
+                        holder._instance );
         }
 
         return singletonInstance;
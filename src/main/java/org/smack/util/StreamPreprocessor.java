@@ -7,15 +7,44 @@
  */
 package org.smack.util;
 
-import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Uses a Stream and resolves C-like preprocessor commands.
+ * <p>
+ * Lines are encoded into a reused buffer that serves bulk reads.
+ * Includes with a {@link Resolver#canonicalName(String) canonical name}
+ * are expanded once and served from a cache on further inclusion.
+ * </p>
+ * <p>
+ * Character based consumers use {@link #reader(Reader, Resolver, Charset)}
+ * or {@link #lines(Reader, Resolver, Charset)} that do not encode the
+ * processed text.
+ * </p>
  *
  * @version $Id$
  * @author OTTALE
@@ -41,8 +70,100 @@ public class StreamPreprocessor extends InputStream{
          * @throws IOException In case of an error.
          */
         Resolver reposition(String name) throws IOException;
+
+        /**
+         * Get a name identifying the resource independent of the
+         * resolver's position, for example an absolute path.  Included
+         * resources with a canonical name are read only once.
+         * @param name the name of the resource (kind of URI but not a real URI).
+         * @return The canonical name, {@code null} if the resource must not
+         * be cached.  This is the default.
+         * @throws IOException In case of an error.
+         */
+        default String canonicalName(String name) throws IOException {
+            return null;
+        }
     }
 
+    /**
+     * A line of processed text.  Knows the resource it was read from.
+     */
+    public static final class Line implements CharSequence {
+        private final String text;
+        private final String source;
+        private final int lineNumber;
+        private final int depth;
+
+        private Line(String text, String source, int lineNumber, int depth) {
+            this.text = text;
+            this.source = source;
+            this.lineNumber = lineNumber;
+            this.depth = depth;
+        }
+
+        /**
+         * @return The included resource containing the line.  This is
+         * the canonical name if available, otherwise the name in the
+         * include directive.  {@code null} for the lines of the
+         * processed input.
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * @return The one-based line number in the source.
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @return The include depth.  Zero for the lines of the
+         * processed input.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return This line with a depth increased by the passed value.
+         */
+        private Line deeper(int offset) {
+            return offset == 0 ?
+                    this :
+                    new Line(text, source, lineNumber, depth + offset);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        /**
+         * @return The text of the line without line separator.
+         */
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * The line separator appended to each line.
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     /**
      * The InputStream from the resource handily wrapped.
      */
@@ -58,6 +179,28 @@ public class StreamPreprocessor extends InputStream{
      */
     final private Charset cs;
 
+    /**
+     * Encodes the lines.
+     */
+    final private CharsetEncoder encoder;
+
+    /**
+     * The expanded includes by canonical name.  Shared with the
+     * preprocessors of included resources.
+     */
+    final private Map<String, byte[]> includeCache;
+
+    /**
+     * The bytes to read before the next line.  Either the current
+     * encoded line or a cached include.
+     */
+    private ByteBuffer currentBytes = ByteBuffer.allocate( 0 );
+
+    /**
+     * The reused buffer for encoded lines.
+     */
+    private ByteBuffer lineBuffer = ByteBuffer.allocate( 256 );
+
     /**
      * If this is not null read() will return {@link #nextHierarchy#read()}
      */
@@ -79,15 +222,51 @@ public class StreamPreprocessor extends InputStream{
      * @param cs The character set to use in character transformations.
      */
     public StreamPreprocessor(InputStream is, Resolver res, Charset cs) {
+        this(is,res,cs,new HashMap<>());
+    }
+
+    private StreamPreprocessor(
+            InputStream is,
+            Resolver res,
+            Charset cs,
+            Map<String, byte[]> includeCache) {
         this.cs = cs;
         this.res = res;
+        this.includeCache = includeCache;
+        encoder = cs.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
         lnr = new LineNumberReader(new InputStreamReader(is,cs));
     }
 
+    /**
+     * Ensures that data is available in {@link #currentBytes} or
+     * {@link #currentInputStream}.
+     *
+     * @return {@code false} at the end of the stream.
+     */
+    private boolean fill() throws IOException
+    {
+        while ( ! currentBytes.hasRemaining() && currentInputStream == null )
+        {
+            String currentLineStr = lnr.readLine();
+            if(currentLineStr == null)
+                return false;
+
+            preProcess(currentLineStr);
+        }
+
+        return true;
+    }
+
     @Override
     public int read() throws IOException
     {
-        if(currentInputStream != null){
+        while ( fill() )
+        {
+            if ( currentBytes.hasRemaining() )
+                return currentBytes.get() & 0xff;
+
             int result = currentInputStream.read();
             if(result != -1){
                 return result;
@@ -96,14 +275,27 @@ public class StreamPreprocessor extends InputStream{
             currentInputStream = null;
         }
 
-        String currentLineStr = lnr.readLine();
-        if(currentLineStr == null)
-            return -1;
-        currentLineStr += System.lineSeparator();
+        return -1;
+    }
+
+    /**
+     * @param line A line.
+     * @return The name of the included resource if the line is an
+     * include directive, otherwise {@code null}.
+     */
+    private static String includeName(String line) {
+        if(!line.trim().startsWith("#include"))
+            return null;
+
+        // TODO better use a regular expression finding:
+        // <space> # <space> include <space> optional-quoted argument
 
-        currentInputStream = preProcess(currentLineStr);
-        return currentInputStream.read();
+        String filterStr = "#include ";
+        int i = line.indexOf(filterStr);
+        int debugIndex = i+filterStr.length();
+        String name = line.substring(debugIndex).trim();
 
+        return StringUtil.trim( name, "\"" );
     }
 
     /**
@@ -112,53 +304,108 @@ public class StreamPreprocessor extends InputStream{
      * This is the place where you should add a new preprocessor instructions.
      *
      * @param pPLine the raw line which contains the preprocessor commands(e.g. #Include).
-     * @return The InputStream to read from next.
      *
      * @throws IOException   if the preprocessor instruction is unknown or<br>
      *                       if the preprocessor command execution led to an Exception.
      */
-    private InputStream preProcess(String pPLine) throws IOException {
-        if(pPLine.trim().startsWith("#include")){
-            return pPComandInclude(pPLine);
+    private void preProcess(String pPLine) throws IOException {
+        String name = includeName(pPLine);
+        if(name != null){
+            pPComandInclude(name);
+            return;
         }
 //        //add other preprocessor commands here
 //        else if(string.startsWith("#OtherPreProcessorInstructions"){
 //            ppCommandOtherPPAction();
 //        }
-        return new ByteArrayInputStream(pPLine.getBytes(cs));
+        currentBytes = encode(pPLine);
+    }
+
+    /**
+     * Encodes a line followed by the line separator into
+     * {@link #lineBuffer}.
+     *
+     * @return The flipped line buffer.
+     */
+    private ByteBuffer encode(String line) throws CharacterCodingException {
+        encoder.reset();
+        lineBuffer.clear();
+
+        encode(CharBuffer.wrap(line), false);
+        encode(CharBuffer.wrap(LINE_SEPARATOR), true);
+
+        while (encoder.flush(lineBuffer).isOverflow())
+            growLineBuffer();
+
+        return lineBuffer.flip();
+    }
+
+    private void encode(CharBuffer in, boolean endOfInput)
+            throws CharacterCodingException {
+        while (true) {
+            var result = encoder.encode(in, lineBuffer, endOfInput);
+
+            if (result.isOverflow())
+                growLineBuffer();
+            else if (result.isError())
+                result.throwException();
+            else
+                return;
+        }
+    }
+
+    private void growLineBuffer() {
+        lineBuffer = ByteBuffer.allocate(2 * lineBuffer.capacity())
+                .put(lineBuffer.flip());
     }
 
     /**
      * Uses the {@link #Resolver} (res) to set the <code>nextHierarchy</code> attribute.
      *
-     * @param includeLine the raw line starting with #include (ignoring what is before "#include ").
+     * @param name the name of the included resource.
      * @throws IOException if an I/O Exception occurs while loading the resource.
      */
-    private InputStream pPComandInclude(String includeLine) throws IOException {
+    private void pPComandInclude(String name) throws IOException {
+        String key = res.canonicalName(name);
 
-        // TODO better use a regular expression finding:
-        // <space> # <space> include <space> optional-quoted argument
+        if (key == null) {
+            currentInputStream = include(name);
+            return;
+        }
 
-        String filterStr = "#include ";
-        int i = includeLine.indexOf(filterStr);
-        int debugIndex = i+filterStr.length();
-        String name = includeLine.substring(debugIndex).trim();
+        byte[] expanded = includeCache.get(key);
+
+        if (expanded == null) {
+            try (InputStream included = include(name)) {
+                expanded = included.readAllBytes();
+            }
+            includeCache.put(key, expanded);
+        }
 
-        name = StringUtil.trim( name, "\"" );
+        currentBytes = ByteBuffer.wrap(expanded);
+    }
 
+    private StreamPreprocessor include(String name) throws IOException {
         InputStream newStream = res.resolveName(name);
         Resolver newResolver = res.reposition(name);
-        return new StreamPreprocessor(newStream, newResolver);
+        return new StreamPreprocessor(newStream, newResolver, cs, includeCache);
     }
 
     @Override
     public void close() throws IOException
     {
-        if ( currentInputStream == null )
-            return;
+        currentBytes = ByteBuffer.allocate( 0 );
 
-        currentInputStream.close();
-        currentInputStream = null;
+        try
+        {
+            if ( currentInputStream != null )
+                currentInputStream.close();
+        }
+        finally
+        {
+            currentInputStream = null;
+            lnr.close();
+        }
     }
 
     @Override
@@ -176,16 +423,293 @@ public class StreamPreprocessor extends InputStream{
     @Override
     public int read( byte[] b, int off, int len ) throws IOException
     {
-        for ( int i = 0 ; i < len ; i++ )
+        Objects.checkFromIndexSize( off, len, b.length );
+
+        int count = 0;
+
+        while ( count < len && fill() )
         {
-            int c = read();
+            if ( currentBytes.hasRemaining() )
+            {
+                int n = Math.min( len - count, currentBytes.remaining() );
+                currentBytes.get( b, off + count, n );
+                count += n;
+                continue;
+            }
+
+            int n = currentInputStream.read( b, off + count, len - count );
+            if ( n == -1 )
+            {
+                currentInputStream.close();
+                currentInputStream = null;
+                continue;
+            }
+
+            count += n;
+        }
+
+        return count == 0 && len > 0 ? -1 : count;
+    }
+
+    /**
+     * Reads the processed lines from a stack of resources.
+     */
+    private static final class LineSource implements Closeable {
+        private static final class Frame {
+            final LineNumberReader reader;
+            final Resolver res;
+            final String source;
+            final int depth;
+
+            Frame(Reader reader, Resolver res, String source, int depth) {
+                this.reader = new LineNumberReader(reader);
+                this.res = res;
+                this.source = source;
+                this.depth = depth;
+            }
+        }
+
+        private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+        private final Charset cs;
+
+        /**
+         * The lines of included resources by canonical name.  The depths
+         * are relative to the included resource.
+         */
+        private final Map<String, List<Line>> includeCache;
+
+        /**
+         * The cached include currently replayed.
+         */
+        private Iterator<Line> replay;
+        private int replayDepth;
+
+        private LineSource(
+                Reader reader,
+                Resolver res,
+                String source,
+                Charset cs,
+                Map<String, List<Line>> includeCache) {
+            this.cs = cs;
+            this.includeCache = includeCache;
+            frames.push(new Frame(reader, res, source, 0));
+        }
+
+        LineSource(Reader reader, Resolver res, Charset cs) {
+            this(reader, res, null, cs, new HashMap<>());
+        }
+
+        /**
+         * @return The next line, {@code null} at the end of the input.
+         */
+        Line next() throws IOException {
+            while (true) {
+                if (replay != null) {
+                    if (replay.hasNext())
+                        return replay.next().deeper(replayDepth);
+                    replay = null;
+                }
+
+                Frame frame = frames.peek();
+                if (frame == null)
+                    return null;
+
+                String text = frame.reader.readLine();
+                if (text == null) {
+                    frames.pop().reader.close();
+                    continue;
+                }
+
+                String name = includeName(text);
+                if (name == null)
+                    return new Line(
+                            text,
+                            frame.source,
+                            frame.reader.getLineNumber(),
+                            frame.depth);
+
+                include(frame, name);
+            }
+        }
+
+        private Reader open(Resolver res, String name) throws IOException {
+            return new InputStreamReader(res.resolveName(name), cs);
+        }
+
+        private void include(Frame frame, String name) throws IOException {
+            String key = frame.res.canonicalName(name);
+
+            if (key == null) {
+                frames.push(new Frame(
+                        open(frame.res, name),
+                        frame.res.reposition(name),
+                        name,
+                        frame.depth + 1));
+                return;
+            }
+
+            List<Line> lines = includeCache.get(key);
+
+            if (lines == null) {
+                lines = new ArrayList<>();
+                try (LineSource included = new LineSource(
+                        open(frame.res, name),
+                        frame.res.reposition(name),
+                        key,
+                        cs,
+                        includeCache)) {
+                    for (Line c = included.next(); c != null; c = included.next())
+                        lines.add(c);
+                }
+                includeCache.put(key, lines);
+            }
+
+            replay = lines.iterator();
+            replayDepth = frame.depth + 1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            replay = null;
+
+            while (!frames.isEmpty())
+                frames.pop().reader.close();
+        }
+    }
+
+    /**
+     * A reader on the processed text.
+     */
+    private static final class PreprocessingReader extends Reader {
+        private final LineSource lines;
+
+        /**
+         * The current line, {@code null} if a line has to be read.
+         */
+        private String current;
+
+        /**
+         * The position in the current line followed by the separator.
+         */
+        private int position;
+
+        PreprocessingReader(LineSource lines) {
+            this.lines = lines;
+        }
+
+        /**
+         * @return {@code false} at the end of the input.
+         */
+        private boolean fill() throws IOException {
+            if (current != null &&
+                    position < current.length() + LINE_SEPARATOR.length())
+                return true;
+
+            Line line = lines.next();
+            if (line == null)
+                return false;
+
+            current = line.toString();
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, cbuf.length);
+
+            int count = 0;
+
+            while (count < len && fill()) {
+                int length = current.length();
+                String text = current;
+                int start = position;
 
-            if ( c == -1 )
-                return i > 0 ? i : -1;
+                if (position >= length) {
+                    text = LINE_SEPARATOR;
+                    start = position - length;
+                }
 
-            b[ i+off ] = (byte)c;
+                int n = Math.min(len - count, text.length() - start);
+                text.getChars(start, start + n, cbuf, off + count);
+                position += n;
+                count += n;
+            }
+
+            return count == 0 && len > 0 ? -1 : count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            current = null;
+            lines.close();
         }
+    }
+
+    /**
+     * Create a reader on the processed text.  Lines are terminated by
+     * the platform's line separator.
+     *
+     * @param in The text to process.
+     * @param res The Resolver used to resolve include directives.
+     * @param cs The character set of included resources.
+     * @return The reader.
+     */
+    public static Reader reader(Reader in, Resolver res, Charset cs) {
+        return new PreprocessingReader(new LineSource(in, res, cs));
+    }
+
+    /**
+     * Get the processed lines.  I/O errors are thrown as
+     * {@link UncheckedIOException}.  Closing the stream closes the
+     * passed reader.
+     *
+     * @param in The text to process.
+     * @param res The Resolver used to resolve include directives.
+     * @param cs The character set of included resources.
+     * @return The lines.
+     */
+    public static Stream<Line> lines(Reader in, Resolver res, Charset cs) {
+        LineSource lines = new LineSource(in, res, cs);
+
+        Iterator<Line> iterator = new Iterator<>() {
+            private Line next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null)
+                    return true;
+
+                try {
+                    next = lines.next();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                return next != null;
+            }
+
+            @Override
+            public Line next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                Line result = next;
+                next = null;
+                return result;
+            }
+        };
 
-        return len;
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                        iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL),
+                false).onClose(() -> {
+                    try {
+                        lines.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
     }
 }
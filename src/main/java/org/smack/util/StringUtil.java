@@ -5,6 +5,8 @@
  */
 package org.smack.util;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
@@ -387,68 +389,219 @@ public class StringUtil
         return quote( QUOTE_CHAR, string );
     }
 
+    /**
+     * Receives the tokens found by
+     * {@link StringUtil#tokenize(CharSequence, char, boolean, TokenHandler)}.
+     */
+    @FunctionalInterface
+    public interface TokenHandler
+    {
+        /**
+         * Called for each token in the order of the tokens in the
+         * source string.
+         *
+         * @param begin The start index of the token in the source string.
+         * For a token starting with a quote this is the position
+         * after the quote.
+         * @param end The end index of the token, exclusive.  For a
+         * token ending with a quote this is the position of the quote.
+         * @param verbatim If true the token is exactly the source range.
+         * Otherwise the range contains quote or escape characters and
+         * the token value is computed by
+         * {@link StringUtil#appendToken(StringBuilder, CharSequence, char, boolean, int, int)}.
+         */
+        void token( int begin, int end, boolean verbatim );
+    }
+
     /**
      * Splits a whitespace delimited and quoted string as used on command
-     * lines into its elements.  For example 'Admiral "von Schneider"' is
-     * split into 'Admiral' and 'von Schneider'.
+     * lines into the positions of its elements.  Uses the same rules as
+     * {@link #splitQuoted(char, String)} but allocates nothing, allowing
+     * callers to parse the tokens in place.
      *
-     * TODO(micbinz) does not support quoting of quote characters.
-     * @param quoteChar The character used for quotes.
      * @param string The string to split.
-     * @return The split strings.
+     * @param quoteChar The character used for quotes.
+     * @param escapes If true a backslash escapes the following character
+     * like in {@link #unquote(char, String)}.  This allows to quote
+     * quote characters.
+     * @param handler Receives the token positions.
+     * @return The number of tokens found.
+     * @throws IllegalArgumentException If escapes are enabled and the string
+     * ends with an escape character.
      */
-    public static String[] splitQuoted( char quoteChar, String string )
+    public static int tokenize(
+            CharSequence string,
+            char quoteChar,
+            boolean escapes,
+            TokenHandler handler )
     {
         // See also http://stackoverflow.com/questions/10695143/split-a-quoted-string-with-a-delimiter
         // for a sketch of solving the same with regular expressions.  Can be made workable, but is even less
         // understandable.
 
-        boolean inDoubleQuotes = false;
+        final char escapeChar = ESCAPE_CHAR.charAt( 0 );
+        final int length = string.length();
 
-        ArrayList<String> result = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
+        int count = 0;
+        int begin = -1;
+        boolean verbatim = true;
+        boolean inQuotes = false;
 
-        for ( char c : string.toCharArray() )
+        for ( int i = 0 ; i < length ; i++ )
         {
-            boolean isDoubleQuote = c == quoteChar;
+            char c = string.charAt( i );
+
+            if ( escapes && c == escapeChar )
+            {
+                if ( ++i == length )
+                    throw new IllegalArgumentException(
+                            "Trailing escape: " + string );
+                if ( begin < 0 )
+                    begin = i - 1;
+                verbatim = false;
+                continue;
+            }
 
-            if ( isDoubleQuote )
+            if ( c == quoteChar )
             {
-                inDoubleQuotes = !inDoubleQuotes;
+                inQuotes = !inQuotes;
 
-                if ( ! inDoubleQuotes )
+                if ( inQuotes )
                 {
-                    // End of the quoted sequence.
-                    result.add( sb.toString() );
-                    sb.setLength( 0 );
+                    if ( begin < 0 )
+                        begin = i + 1;
+                    else
+                        // Quote in the middle of a token.
+                        verbatim = false;
+                    continue;
                 }
+
+                // End of the quoted sequence.
+                handler.token( begin, i, verbatim );
+                count++;
+                begin = -1;
+                verbatim = true;
                 continue;
             }
 
-            if ( inDoubleQuotes )
-            {
-                sb.append( c );
+            if ( inQuotes )
                 continue;
-            }
-            else if ( Character.isWhitespace( c ) )
+
+            if ( Character.isWhitespace( c ) )
             {
-                if ( sb.length() > 0 )
+                if ( begin >= 0 )
                 {
-                    result.add( sb.toString() );
-                    sb.setLength( 0 );
+                    handler.token( begin, i, verbatim );
+                    count++;
+                    begin = -1;
+                    verbatim = true;
                 }
                 continue;
             }
 
-            sb.append( c );
+            if ( begin < 0 )
+                begin = i;
+        }
+
+        if ( begin >= 0 )
+        {
+            handler.token( begin, length, verbatim );
+            count++;
         }
 
-        if ( sb.length() > 0 || inDoubleQuotes )
-            result.add( sb.toString() );
+        return count;
+    }
+
+    /**
+     * Appends the value of a token reported by
+     * {@link #tokenize(CharSequence, char, boolean, TokenHandler)}.
+     * Quote characters are removed and, if enabled, escapes are
+     * resolved.
+     *
+     * @param target The target buffer.
+     * @param string The tokenized string.
+     * @param quoteChar The character used for quotes.
+     * @param escapes True if escapes were enabled when tokenizing.
+     * @param begin The start index of the token.
+     * @param end The end index of the token.
+     * @return The passed target.
+     */
+    public static StringBuilder appendToken(
+            StringBuilder target,
+            CharSequence string,
+            char quoteChar,
+            boolean escapes,
+            int begin,
+            int end )
+    {
+        final char escapeChar = ESCAPE_CHAR.charAt( 0 );
+
+        for ( int i = begin ; i < end ; i++ )
+        {
+            char c = string.charAt( i );
+
+            if ( escapes && c == escapeChar )
+                c = string.charAt( ++i );
+            else if ( c == quoteChar )
+                continue;
+
+            target.append( c );
+        }
+
+        return target;
+    }
+
+    /**
+     * Splits a whitespace delimited and quoted string as used on command
+     * lines into its elements.  For example 'Admiral "von Schneider"' is
+     * split into 'Admiral' and 'von Schneider'.
+     *
+     * @param quoteChar The character used for quotes.
+     * @param escapes If true a backslash escapes the following character,
+     * allowing to quote quote characters.
+     * @param string The string to split.
+     * @return The split strings.
+     * @see #tokenize(CharSequence, char, boolean, TokenHandler)
+     */
+    public static String[] splitQuoted(
+            char quoteChar,
+            boolean escapes,
+            CharSequence string )
+    {
+        ArrayList<String> result = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+
+        tokenize( string, quoteChar, escapes, ( begin, end, verbatim ) -> {
+            if ( verbatim )
+            {
+                result.add( string.subSequence( begin, end ).toString() );
+                return;
+            }
+
+            sb.setLength( 0 );
+            result.add( appendToken(
+                    sb, string, quoteChar, escapes, begin, end ).toString() );
+        } );
 
         return result.toArray( new String[ result.size()] );
     }
 
+    /**
+     * Splits a whitespace delimited and quoted string as used on command
+     * lines into its elements.  For example 'Admiral "von Schneider"' is
+     * split into 'Admiral' and 'von Schneider'.
+     *
+     * TODO(micbinz) does not support quoting of quote characters.
+     * @param quoteChar The character used for quotes.
+     * @param string The string to split.
+     * @return The split strings.
+     * @see #splitQuoted(char, boolean, CharSequence)
+     */
+    public static String[] splitQuoted( char quoteChar, String string )
+    {
+        return splitQuoted( quoteChar, false, string );
+    }
+
     /**
      * Splits a whitespace delimited and quoted string as used on command
      * lines into its elements.  For example 'Admiral "von Schneider"' is
@@ -463,6 +616,45 @@ public class StringUtil
         return splitQuoted( QUOTE_CHAR, toSplit );
     }
 
+    /**
+     * The hex digits by value.
+     */
+    private static final char[] HEX_DIGITS =
+            "0123456789abcdef".toCharArray();
+
+    /**
+     * The values of the hex digit characters, -1 for other characters.
+     */
+    private static final byte[] HEX_VALUES = new byte['f' + 1];
+
+    static
+    {
+        Arrays.fill( HEX_VALUES, (byte)-1 );
+
+        for ( int i = 0 ; i < HEX_DIGITS.length ; i++ )
+        {
+            HEX_VALUES[HEX_DIGITS[i]] = (byte)i;
+            HEX_VALUES[Character.toUpperCase( HEX_DIGITS[i] )] = (byte)i;
+        }
+    }
+
+    /**
+     * @return The value of the hex digit at the passed index.
+     * @throws NumberFormatException If the character is not a hex digit.
+     */
+    private static int hexValue( CharSequence string, int index )
+    {
+        char c = string.charAt( index );
+
+        int result = c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+
+        if ( result < 0 )
+            throw new NumberFormatException( String.format(
+                    "Not a hex digit '%c' at %d.", c, index ) );
+
+        return result;
+    }
+
     private static byte[] fromHexImpl( String string )
     {
         if ( MathUtil.isOdd( string.length() ))
@@ -470,19 +662,174 @@ public class StringUtil
 
         var result = new byte[ string.length() / 2 ];
 
-        for ( int i = 0 ; i < result.length ; i++ )
+        decodeHex( string, 0, string.length(), result, 0 );
+
+        return result;
+    }
+
+    /**
+     * Decode hex digits in upper or lower case into a byte array.
+     *
+     * @param string The string holding the digits.
+     * @param offset The index of the first digit.
+     * @param length The even number of digits.
+     * @param target The target array.
+     * @param targetOffset The index of the first byte written.
+     * @return The number of bytes written.
+     * @throws NumberFormatException If the string holds an odd number
+     * of digits or non-digit characters.
+     */
+    public static int decodeHex(
+            CharSequence string,
+            int offset,
+            int length,
+            byte[] target,
+            int targetOffset )
+    {
+        Objects.checkFromIndexSize( offset, length, string.length() );
+
+        if ( MathUtil.isOdd( length ) )
+            throw new NumberFormatException( "Length is odd: " + length );
+
+        int result = length / 2;
+
+        Objects.checkFromIndexSize( targetOffset, result, target.length );
+
+        for ( int i = 0 ; i < result ; i++ )
         {
-            int stringIndex =
-                    i * 2;
-            String pair =
-                    string.substring( stringIndex, stringIndex+2 );
-            result[i] = (byte)
-                    Short.parseShort( pair, 16 );
+            int index = offset + 2 * i;
+            target[targetOffset + i] = (byte)
+                    (hexValue( string, index ) << 4 |
+                     hexValue( string, index + 1 ));
         }
 
         return result;
     }
 
+    /**
+     * Decode hex digits in upper or lower case into a buffer.  The
+     * bytes are written at the buffer's position which is advanced.
+     *
+     * @param string The even number of digits to decode.
+     * @param target The target buffer.
+     * @throws NumberFormatException If the string holds an odd number
+     * of digits or non-digit characters.
+     */
+    public static void decodeHex( CharSequence string, ByteBuffer target )
+    {
+        if ( MathUtil.isOdd( string.length() ) )
+            throw new NumberFormatException(
+                    "Length is odd: " + string.length() );
+
+        for ( int i = 0 ; i < string.length() ; i += 2 )
+            target.put( (byte)
+                    (hexValue( string, i ) << 4 |
+                     hexValue( string, i + 1 )) );
+    }
+
+    /**
+     * Append bytes as lower case hex digits.
+     *
+     * @param out The target.
+     * @param array The bytes to convert.
+     * @param offset The index of the first byte.
+     * @param length The number of bytes.
+     * @return The passed target.
+     */
+    public static StringBuilder appendHex(
+            StringBuilder out,
+            byte[] array,
+            int offset,
+            int length )
+    {
+        Objects.checkFromIndexSize( offset, length, array.length );
+
+        out.ensureCapacity( out.length() + 2 * length );
+
+        for ( int i = offset ; i < offset + length ; i++ )
+        {
+            int c = array[i] & 0xff;
+            out.append( HEX_DIGITS[c >>> 4] ).append( HEX_DIGITS[c & 0xf] );
+        }
+
+        return out;
+    }
+
+    /**
+     * Append the remaining bytes of a buffer as lower case hex digits.
+     * The buffer's position is not modified.
+     *
+     * @param <A> The target type.
+     * @param out The target.
+     * @param buffer The bytes to convert.
+     * @return The passed target.
+     * @throws IOException If the target throws.
+     */
+    public static <A extends Appendable> A appendHex( A out, ByteBuffer buffer )
+        throws IOException
+    {
+        for ( int i = buffer.position() ; i < buffer.limit() ; i++ )
+        {
+            int c = buffer.get( i ) & 0xff;
+            out.append( HEX_DIGITS[c >>> 4] ).append( HEX_DIGITS[c & 0xf] );
+        }
+
+        return out;
+    }
+
+    /**
+     * Convert a part of an array to a hex string.
+     *
+     * @param array The array to convert.
+     * @param offset The index of the first byte.
+     * @param length The number of bytes.
+     * @return The result string.
+     * @see #toHex(byte[])
+     */
+    public static String toHex( byte[] array, int offset, int length )
+    {
+        Objects.checkFromIndexSize( offset, length, array.length );
+
+        var result = new char[2 * length];
+
+        for ( int i = 0 ; i < length ; i++ )
+        {
+            int c = array[offset + i] & 0xff;
+            result[2 * i] = HEX_DIGITS[c >>> 4];
+            result[2 * i + 1] = HEX_DIGITS[c & 0xf];
+        }
+
+        return new String( result );
+    }
+
+    /**
+     * Convert the remaining bytes of a buffer to a hex string.  The
+     * buffer's position is not modified.
+     *
+     * @param buffer The bytes to convert.
+     * @return The result string.
+     * @see #toHex(byte[])
+     */
+    public static String toHex( ByteBuffer buffer )
+    {
+        if ( buffer.hasArray() )
+            return toHex(
+                    buffer.array(),
+                    buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining() );
+
+        var result = new char[2 * buffer.remaining()];
+
+        for ( int i = 0 ; i < buffer.remaining() ; i++ )
+        {
+            int c = buffer.get( buffer.position() + i ) & 0xff;
+            result[2 * i] = HEX_DIGITS[c >>> 4];
+            result[2 * i + 1] = HEX_DIGITS[c & 0xf];
+        }
+
+        return new String( result );
+    }
+
     /**
      * Convert an array to a hex string.  The resulting string consists of
      * an even number of hex figures, for each input byte two.  Example is
@@ -493,13 +840,7 @@ public class StringUtil
      */
     public static String toHex( byte[] array )
     {
-        var result =
-                new StringBuilder( array.length * 2 );
-
-        for ( Byte c : array )
-            result.append( String.format( "%02x", c ) );
-
-        return result.toString();
+        return toHex( array, 0, array.length );
     }
 
     /**
@@ -0,0 +1,360 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util.converters;
+
+import java.util.Arrays;
+
+import org.smack.util.StringUtil;
+
+/**
+ * Converters for arrays of primitives.  The elements are parsed from
+ * the token positions in the input string directly into the result
+ * array, without boxing.  The conversion semantics of the elements
+ * match the primitive converters in {@link PrimitivesBundle}.
+ *
+ * @author Michael Binz
+ */
+final class PrimitiveArrays
+{
+    /**
+     * The quote character used by {@link StringUtil#splitQuoted(String)}.
+     */
+    private static final char QUOTE_CHAR = '"';
+
+    /**
+     * Instantiation forbidden.
+     */
+    private PrimitiveArrays()
+    {
+        throw new AssertionError();
+    }
+
+    /**
+     * The positions of the whitespace separated tokens in a string.
+     * Tokens are split like {@link StringUtil#splitQuoted(String)}.
+     */
+    private static final class Tokens implements StringUtil.TokenHandler
+    {
+        /**
+         * The tokenized string.
+         */
+        private final String _source;
+
+        /**
+         * The token values for tokens that are not a plain range
+         * of {@link #_source}.  Allocated on demand.
+         */
+        private String[] _unquoted;
+
+        /**
+         * Pairs of token begin and end positions in {@link #_source}.
+         */
+        private int[] _bounds = new int[16];
+
+        private int _count;
+
+        Tokens( String s )
+        {
+            _source = s;
+
+            StringUtil.tokenize( s, QUOTE_CHAR, false, this );
+        }
+
+        @Override
+        public void token( int begin, int end, boolean verbatim )
+        {
+            if ( _bounds.length < 2 * _count + 2 )
+                _bounds = Arrays.copyOf( _bounds, _bounds.length * 2 );
+
+            if ( ! verbatim )
+            {
+                // Rare for primitives.  Compute the value.
+                if ( _unquoted == null )
+                    _unquoted = new String[_bounds.length / 2];
+                else if ( _unquoted.length <= _count )
+                    _unquoted = Arrays.copyOf( _unquoted, _bounds.length / 2 );
+
+                _unquoted[_count] = StringUtil.appendToken(
+                        new StringBuilder(),
+                        _source,
+                        QUOTE_CHAR,
+                        false,
+                        begin,
+                        end ).toString();
+                begin = 0;
+                end = _unquoted[_count].length();
+            }
+
+            _bounds[2 * _count] = begin;
+            _bounds[2 * _count + 1] = end;
+            _count++;
+        }
+
+        int count()
+        {
+            return _count;
+        }
+
+        String source( int i )
+        {
+            if ( _unquoted != null && i < _unquoted.length && _unquoted[i] != null )
+                return _unquoted[i];
+
+            return _source;
+        }
+
+        int begin( int i )
+        {
+            return _bounds[2 * i];
+        }
+
+        int end( int i )
+        {
+            return _bounds[2 * i + 1];
+        }
+    }
+
+    /**
+     * Computes the radix and the start of the digits for the number
+     * formats supported by {@link Integer#decode(String)}.
+     *
+     * @return The radix in the upper and the digit start position in the
+     * lower 32 bits, or -1 if the position holds a misplaced sign.
+     */
+    private static long decodePrefix( String s, int index, int end )
+    {
+        int radix = 10;
+
+        if ( s.startsWith( "0x", index ) || s.startsWith( "0X", index ) )
+        {
+            index += 2;
+            radix = 16;
+        }
+        else if ( index < end && s.charAt( index ) == '#' )
+        {
+            index++;
+            radix = 16;
+        }
+        else if ( index + 1 < end && s.charAt( index ) == '0' )
+        {
+            index++;
+            radix = 8;
+        }
+
+        if ( index == end )
+            return -1;
+
+        char c = s.charAt( index );
+        if ( c == '-' || c == '+' )
+            return -1;
+
+        return (long)radix << 32 | index;
+    }
+
+    /**
+     * @return The position after the sign, if any.
+     */
+    private static int skipSign( String s, int begin, int end )
+    {
+        if ( begin < end )
+        {
+            char c = s.charAt( begin );
+            if ( c == '-' || c == '+' )
+                return begin + 1;
+        }
+
+        return begin;
+    }
+
+    /**
+     * Parses a token like {@link Long#decode(String)}.
+     */
+    static long decodeLong( String s, int begin, int end )
+    {
+        int index = skipSign( s, begin, end );
+        long prefix = decodePrefix( s, index, end );
+
+        try
+        {
+            if ( prefix != -1 )
+            {
+                long result = Long.parseLong(
+                        s,
+                        (int)prefix,
+                        end,
+                        (int)(prefix >>> 32) );
+                return s.charAt( begin ) == '-' ? -result : result;
+            }
+        }
+        catch ( NumberFormatException e )
+        {
+            // Handled below.
+        }
+
+        // Corner cases like Long.MIN_VALUE and errors.
+        return Long.decode( s.substring( begin, end ) );
+    }
+
+    /**
+     * Parses a token like {@link Integer#decode(String)}.
+     */
+    static int decodeInt( String s, int begin, int end )
+    {
+        int index = skipSign( s, begin, end );
+        long prefix = decodePrefix( s, index, end );
+
+        try
+        {
+            if ( prefix != -1 )
+            {
+                int result = Integer.parseInt(
+                        s,
+                        (int)prefix,
+                        end,
+                        (int)(prefix >>> 32) );
+                return s.charAt( begin ) == '-' ? -result : result;
+            }
+        }
+        catch ( NumberFormatException e )
+        {
+            // Handled below.
+        }
+
+        // Corner cases like Integer.MIN_VALUE and errors.
+        return Integer.decode( s.substring( begin, end ) );
+    }
+
+    /**
+     * Parses a token like {@link Short#decode(String)}.
+     */
+    static short decodeShort( String s, int begin, int end )
+    {
+        int result = decodeInt( s, begin, end );
+
+        if ( result < Short.MIN_VALUE || result > Short.MAX_VALUE )
+            // Throws the range error.
+            return Short.decode( s.substring( begin, end ) );
+
+        return (short)result;
+    }
+
+    /**
+     * Parses a token like {@link Byte#decode(String)}.
+     */
+    static byte decodeByte( String s, int begin, int end )
+    {
+        int result = decodeInt( s, begin, end );
+
+        if ( result < Byte.MIN_VALUE || result > Byte.MAX_VALUE )
+            // Throws the range error.
+            return Byte.decode( s.substring( begin, end ) );
+
+        return (byte)result;
+    }
+
+    /**
+     * Parses a token case independent as 'true' or 'false'.
+     */
+    static boolean parseBoolean( String s, int begin, int end )
+    {
+        int length = end - begin;
+
+        if ( length == 4 && s.regionMatches( true, begin, "true", 0, 4 ) )
+            return true;
+        if ( length == 5 && s.regionMatches( true, begin, "false", 0, 5 ) )
+            return false;
+
+        throw new NumberFormatException( s.substring( begin, end ) );
+    }
+
+    static boolean[] toBooleanArray( String s )
+    {
+        var tokens = new Tokens( s );
+        var result = new boolean[tokens.count()];
+
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = parseBoolean(
+                    tokens.source( i ), tokens.begin( i ), tokens.end( i ) );
+
+        return result;
+    }
+
+    static byte[] toByteArray( String s )
+    {
+        var tokens = new Tokens( s );
+        var result = new byte[tokens.count()];
+
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = decodeByte(
+                    tokens.source( i ), tokens.begin( i ), tokens.end( i ) );
+
+        return result;
+    }
+
+    static short[] toShortArray( String s )
+    {
+        var tokens = new Tokens( s );
+        var result = new short[tokens.count()];
+
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = decodeShort(
+                    tokens.source( i ), tokens.begin( i ), tokens.end( i ) );
+
+        return result;
+    }
+
+    static int[] toIntArray( String s )
+    {
+        var tokens = new Tokens( s );
+        var result = new int[tokens.count()];
+
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = decodeInt(
+                    tokens.source( i ), tokens.begin( i ), tokens.end( i ) );
+
+        return result;
+    }
+
+    static long[] toLongArray( String s )
+    {
+        var tokens = new Tokens( s );
+        var result = new long[tokens.count()];
+
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = decodeLong(
+                    tokens.source( i ), tokens.begin( i ), tokens.end( i ) );
+
+        return result;
+    }
+
+    static float[] toFloatArray( String s )
+    {
+        var tokens = new Tokens( s );
+        var result = new float[tokens.count()];
+
+        // The platform offers no floating point parsing of a
+        // character range, so the token is extracted.
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = Float.parseFloat( tokens.source( i ).substring(
+                    tokens.begin( i ), tokens.end( i ) ) );
+
+        return result;
+    }
+
+    static double[] toDoubleArray( String s )
+    {
+        var tokens = new Tokens( s );
+        var result = new double[tokens.count()];
+
+        // The platform offers no floating point parsing of a
+        // character range, so the token is extracted.
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = Double.parseDouble( tokens.source( i ).substring(
+                    tokens.begin( i ), tokens.end( i ) ) );
+
+        return result;
+    }
+}
@@ -113,6 +113,15 @@ public class PrimitivesBundle extends StringConverterExtension
         registry.put( Double.class, Double::parseDouble );
         // char ...
 
+        // Primitive arrays.  Parsed without boxing the elements.
+        registry.put( boolean[].class, PrimitiveArrays::toBooleanArray );
+        registry.put( byte[].class, PrimitiveArrays::toByteArray );
+        registry.put( short[].class, PrimitiveArrays::toShortArray );
+        registry.put( int[].class, PrimitiveArrays::toIntArray );
+        registry.put( long[].class, PrimitiveArrays::toLongArray );
+        registry.put( float[].class, PrimitiveArrays::toFloatArray );
+        registry.put( double[].class, PrimitiveArrays::toDoubleArray );
+
         // The remaining converters supported by default.
         registry.put(
                 String.class,
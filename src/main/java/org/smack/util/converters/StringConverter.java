@@ -5,11 +5,19 @@
  */
 package org.smack.util.converters;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.HashMap;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,7 +27,7 @@ import org.smack.util.StringUtil;
 
 /**
  * Offers conversions services for strings to arbitrary
- * types.
+ * types.  Instances are thread safe.
  *
  * @version $Revision$
  * @author Michael Binz
@@ -36,8 +44,26 @@ public final class StringConverter
             throws Exception;
     }
 
-    private final HashMap<Class<?>, Converter<String, ?>> _registry =
-            new HashMap<>();
+    /**
+     * Marks types without a converter in the registry.
+     */
+    private static final Converter<String, ?> NO_CONVERTER = s -> {
+        throw new AssertionError();
+    };
+
+    /**
+     * Holds the registered and synthesized converters.  Types for which
+     * no converter can be synthesized are mapped to {@link #NO_CONVERTER}.
+     */
+    private final ConcurrentHashMap<Class<?>, Converter<String, ?>> _registry =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by each {@link #put(Class, Converter)}.  Allows to
+     * detect negative entries computed before a put.
+     */
+    private final AtomicInteger _generation =
+            new AtomicInteger();
 
     /**
      * Create an instance.  Use with {@link ServiceManager} to get the common
@@ -76,14 +102,18 @@ public final class StringConverter
 
         LOG.info( "Adding rc for: " + cl );
 
-        // Directly ask the hash table.  The outbound containsKey
-        // triggers creation of entries.
-        if ( _registry.containsKey( cl ) )
-            LOG.warning( "Duplicate resource converter for " + cl + "." );
-
-        _registry.put(
+        var previous = _registry.put(
                 cl,
                 f );
+
+        if ( previous != null && previous != NO_CONVERTER )
+            LOG.warning( "Duplicate resource converter for " + cl + "." );
+
+        _generation.incrementAndGet();
+
+        // Types that had no converter may be synthesizable now, for
+        // example arrays of the added type.
+        _registry.values().removeIf( c -> c == NO_CONVERTER );
     }
 
     /**
@@ -95,7 +125,36 @@ public final class StringConverter
     @SuppressWarnings("unchecked")
     public <T> Converter<String, T> getConverter( Class<T> cl )
     {
-        return (Converter<String,T>)_registry.computeIfAbsent( cl, this::synthesize );
+        var result = _registry.get( cl );
+
+        if ( result == null )
+        {
+            int generation = _generation.get();
+
+            // Synthesis is not done in computeIfAbsent since it
+            // recursively requests converters for component types.
+            // If threads race, the first registered converter wins.
+            result = synthesize( cl );
+            if ( result == null )
+                result = NO_CONVERTER;
+
+            var previous = _registry.putIfAbsent( cl, result );
+            if ( previous != null )
+                result = previous;
+            else if ( result == NO_CONVERTER && generation != _generation.get() )
+            {
+                // A converter was put during the synthesis.  The put
+                // may have removed the negative entries before this one
+                // was added.
+                _registry.remove( cl, NO_CONVERTER );
+                return getConverter( cl );
+            }
+        }
+
+        if ( result == NO_CONVERTER )
+            return null;
+
+        return (Converter<String,T>)result;
     }
 
     /**
@@ -107,15 +166,16 @@ public final class StringConverter
      * on the converter.
      * @throws IllegalArgumentException In case of conversion failure.
      */
-    @SuppressWarnings("unchecked")
     public <T> T convert( Class<T> cl, String s )
     {
-        if ( ! containsKey( cl ) )
+        var converter = getConverter( cl );
+
+        if ( converter == null )
             throw new IllegalArgumentException(
                     "No resource converter found for type: " + cl );
         try
         {
-            return (T)_registry.get( cl ).convert( s );
+            return converter.convert( s );
         }
         catch ( IllegalArgumentException e )
         {
@@ -133,25 +193,134 @@ public final class StringConverter
         }
     }
 
+    /**
+     * The names of static factory methods that are used for converter
+     * synthesis, in order of preference.
+     */
+    private static final String[] FACTORY_NAMES = { "valueOf", "parse" };
+
+    /**
+     * The parameter types of factory methods that are used for converter
+     * synthesis, in order of preference.
+     */
+    private static final Class<?>[] FACTORY_PARAMETERS = { String.class, CharSequence.class };
+
     private <T> Converter<String, T> synthesizeEnum( Class<T> cl )
     {
         LOG.info( "Synthesize enum for: " + cl );
-        return s -> ReflectionUtil.getEnumElement( cl, s );
+
+        var constants = new HashMap<String, T>();
+        for ( var c : cl.getEnumConstants() )
+            constants.putIfAbsent( c.toString(), c );
+
+        return s -> {
+            var result = constants.get( s );
+            if ( result != null )
+                return result;
+            // Generates a good message.
+            return ReflectionUtil.getEnumElement( cl, s );
+        };
     }
 
     private <T> Converter<String, T> synthesizeStringCtor( Class<T> cl, Constructor<T> ctor )
     {
         LOG.info( "Synthesize string ctor for: " + cl );
-        return s -> ctor.newInstance( s );
+
+        try
+        {
+            return synthesizeHandle(
+                    MethodHandles.lookup().unreflectConstructor( ctor ) );
+        }
+        catch ( IllegalAccessException e )
+        {
+            LOG.log( Level.INFO, "Reflective string ctor for: " + cl, e );
+            return s -> ctor.newInstance( s );
+        }
     }
 
     @SuppressWarnings("unchecked")
-    private <T> Converter<String, T> synthesizeArray( Class<T> cl )
+    private <T> Converter<String, T> synthesizeFactory( Class<T> cl, Method factory )
     {
-        LOG.info( "Synthesize array for: " + cl );
+        LOG.info( "Synthesize factory for: " + cl );
+
+        try
+        {
+            return synthesizeHandle(
+                    MethodHandles.lookup().unreflect( factory ) );
+        }
+        catch ( IllegalAccessException e )
+        {
+            LOG.log( Level.INFO, "Reflective factory for: " + cl, e );
+            return s -> (T)factory.invoke( null, s );
+        }
+    }
 
-        var componentConverter =
-                getConverter( cl.getComponentType() );
+    /**
+     * Creates a converter calling the passed method handle.  In contrast
+     * to a class generated by the LambdaMetafactory the handle works for
+     * target classes from any class loader.
+     *
+     * @param target A handle with a single String or CharSequence argument.
+     * @return The converter.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Converter<String, T> synthesizeHandle(
+            MethodHandle target )
+    {
+        var handle = target.asType(
+                MethodType.methodType( Object.class, String.class ) );
+
+        return s -> {
+            try
+            {
+                return (T)(Object)handle.invokeExact( s );
+            }
+            catch ( Exception | Error e )
+            {
+                throw e;
+            }
+            catch ( Throwable e )
+            {
+                throw new UndeclaredThrowableException( e );
+            }
+        };
+    }
+
+    /**
+     * Find a public static factory method like {@code valueOf(String)}
+     * or {@code parse(CharSequence)} that returns the target class.
+     *
+     * @param cl The conversion target class.
+     * @return The factory method or {@code null} if none is found.
+     */
+    private static Method findFactory( Class<?> cl )
+    {
+        for ( var name : FACTORY_NAMES )
+        {
+            for ( var parameter : FACTORY_PARAMETERS )
+            {
+                var result = ReflectionUtil.getMethod( cl, name, parameter );
+
+                if ( result == null )
+                    continue;
+                if ( ! Modifier.isStatic( result.getModifiers() ) )
+                    continue;
+                if ( ! cl.isAssignableFrom( result.getReturnType() ) )
+                    continue;
+
+                return result;
+            }
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Converter<String, T> synthesizeArray(
+            Class<T> cl,
+            Converter<String, ?> componentConverter )
+    {
+        LOG.info( "Synthesize array for: " + cl );
 
         return s -> {
             String[] split = StringUtil.splitQuoted( s );
@@ -184,13 +353,22 @@ public final class StringConverter
         if ( cl.isEnum() )
             return synthesizeEnum( cl );
 
-        if ( cl.isArray() && getConverter( cl.getComponentType() ) != null )
-            return synthesizeArray( cl );
+        if ( cl.isArray() )
+        {
+            var componentConverter =
+                    getConverter( cl.getComponentType() );
+            if ( componentConverter != null )
+                return synthesizeArray( cl, componentConverter );
+        }
 
         var stringCtor = ReflectionUtil.getConstructor( cl, String.class );
         if ( stringCtor != null )
             return synthesizeStringCtor( cl, stringCtor );
 
+        var factory = findFactory( cl );
+        if ( factory != null )
+            return synthesizeFactory( cl, factory );
+
         return null;
     }
 }
@@ -4,8 +4,11 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * A simple pipe.  Write to the write end, read from the read end.
@@ -20,6 +23,53 @@ public final class NioPipe
 
     private final Pipe _pipe;
 
+    private final OutputStream _writeEnd;
+    private final InputStream _readEnd;
+
+    private final WritableByteChannel _writeChannel = new WritableByteChannel()
+    {
+        @Override
+        public int write( ByteBuffer src ) throws IOException
+        {
+            return _pipe.sink().write( src );
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return _pipe.sink().isOpen();
+        }
+
+        @Override
+        public void close()
+        {
+            // A close propagates to both ends.
+            NioPipe.this.close();
+        }
+    };
+
+    private final ReadableByteChannel _readChannel = new ReadableByteChannel()
+    {
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            return _pipe.source().read( dst );
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return _pipe.source().isOpen();
+        }
+
+        @Override
+        public void close()
+        {
+            // A close propagates to both ends.
+            NioPipe.this.close();
+        }
+    };
+
     /**
      * Create an instance.
      *
@@ -35,6 +85,9 @@ public final class NioPipe
         {
             throw new InternalError( e.toString() );
         }
+
+        _writeEnd = Channels.newOutputStream( _pipe.sink() );
+        _readEnd = Channels.newInputStream( _pipe.source() );
     }
 
     /**
@@ -53,7 +106,7 @@ public final class NioPipe
     @Override
     public OutputStream getWriteEnd()
     {
-        return Channels.newOutputStream( _pipe.sink() );
+        return _writeEnd;
     }
 
     /**
@@ -64,7 +117,32 @@ public final class NioPipe
     @Override
     public InputStream getReadEnd()
     {
-        return Channels.newInputStream( _pipe.source() );
+        return _readEnd;
+    }
+
+    /**
+     * Get the write end as a channel.  This writes directly to the sink
+     * of the underlying NIO pipe.  Closing the channel closes the pipe.
+     *
+     * @return The write channel.
+     */
+    @Override
+    public WritableByteChannel getWriteChannel()
+    {
+        return _writeChannel;
+    }
+
+    /**
+     * Get the read end as a channel.  This reads directly from the
+     * source of the underlying NIO pipe.  Closing the channel closes
+     * the pipe.
+     *
+     * @return The read channel.
+     */
+    @Override
+    public ReadableByteChannel getReadChannel()
+    {
+        return _readChannel;
     }
 
     /**
@@ -0,0 +1,490 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+import org.smack.util.JavaUtil;
+
+/**
+ * A pipe buffering its data outside of the Java heap, either in a direct
+ * buffer or in a memory mapped temporary file.  This allows to buffer
+ * large amounts of data between a fast producer and a slow consumer
+ * without garbage collection cost.
+ * <p>
+ * The pipe supports a single writing and a single reading thread at a
+ * time.  The ends synchronize lock-free on two monotonic counters of
+ * written and read bytes.  An end that cannot proceed spins shortly and
+ * then parks until the other end makes progress.
+ * </p>
+ * <p>
+ * Data written before the pipe got closed can still be read.  The read
+ * end reports the end of the stream after the data is consumed.
+ * </p>
+ *
+ * @author Michael Binz
+ */
+public final class OffHeapPipe
+    implements Pipe
+{
+    /**
+     * The number of spins before an end parks.
+     */
+    private static final int SPINS = 100;
+
+    private final int _capacity;
+
+    /**
+     * The write end's view of the buffer.
+     */
+    private final ByteBuffer _writeView;
+
+    /**
+     * The read end's view of the buffer.
+     */
+    private final ByteBuffer _readView;
+
+    /**
+     * The file backing the buffer, {@code null} for direct buffers.
+     */
+    private final FileChannel _file;
+
+    /**
+     * The number of bytes written.  Only modified by the write end.
+     */
+    private volatile long _written = 0;
+
+    /**
+     * The number of bytes read.  Only modified by the read end.
+     */
+    private volatile long _read = 0;
+
+    private volatile boolean _closed = false;
+
+    private volatile Thread _parkedWriter;
+    private volatile Thread _parkedReader;
+
+    private final OutputStream _writeEnd = new OutputStream()
+    {
+        @Override
+        public void write( int b ) throws IOException
+        {
+            awaitSpace();
+
+            long written = _written;
+            _writeView.put( position( written ), (byte)b );
+            _written = written + 1;
+
+            unpark( _parkedReader );
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException
+        {
+            Objects.checkFromIndexSize( off, len, b.length );
+
+            writeBuffer( ByteBuffer.wrap( b, off, len ) );
+        }
+
+        @Override
+        public void close()
+        {
+            // A close propagates to both ends.
+            OffHeapPipe.this.close();
+        }
+    };
+
+    private final InputStream _readEnd = new InputStream()
+    {
+        @Override
+        public int read() throws IOException
+        {
+            if ( ! awaitData() )
+                return -1;
+
+            long read = _read;
+            int result = _readView.get( position( read ) );
+            _read = read + 1;
+
+            unpark( _parkedWriter );
+
+            // Mask to a byte.
+            return result & 0xff;
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException
+        {
+            Objects.checkFromIndexSize( off, len, b.length );
+
+            return readBuffer( ByteBuffer.wrap( b, off, len ) );
+        }
+
+        @Override
+        public int available()
+        {
+            return used();
+        }
+
+        @Override
+        public void close()
+        {
+            // A close propagates to both ends.
+            OffHeapPipe.this.close();
+        }
+    };
+
+    private final WritableByteChannel _writeChannel = new WritableByteChannel()
+    {
+        @Override
+        public boolean isOpen()
+        {
+            return ! _closed;
+        }
+
+        @Override
+        public void close()
+        {
+            OffHeapPipe.this.close();
+        }
+
+        @Override
+        public int write( ByteBuffer src ) throws IOException
+        {
+            if ( _closed )
+                throw new ClosedChannelException();
+
+            return writeBuffer( src );
+        }
+    };
+
+    private final ReadableByteChannel _readChannel = new ReadableByteChannel()
+    {
+        @Override
+        public boolean isOpen()
+        {
+            return ! _closed;
+        }
+
+        @Override
+        public void close()
+        {
+            OffHeapPipe.this.close();
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            return readBuffer( dst );
+        }
+    };
+
+    /**
+     * Create an instance buffering in a direct buffer.
+     *
+     * @param capacity The number of bytes the pipe can buffer.
+     */
+    public OffHeapPipe( int capacity )
+    {
+        this( ByteBuffer.allocateDirect( checkCapacity( capacity ) ), null );
+    }
+
+    /**
+     * Create an instance buffering in a memory mapped temporary file.
+     * The file is deleted when the pipe is closed.
+     *
+     * @param capacity The number of bytes the pipe can buffer.
+     * @param directory The directory of the temporary file.
+     * @throws IOException If the file cannot be created.
+     */
+    public OffHeapPipe( int capacity, Path directory ) throws IOException
+    {
+        this( mapTemporaryFile( checkCapacity( capacity ), directory ) );
+    }
+
+    private OffHeapPipe( FileChannel file ) throws IOException
+    {
+        this( map( file ), file );
+    }
+
+    private OffHeapPipe( ByteBuffer buffer, FileChannel file )
+    {
+        _capacity = buffer.capacity();
+        _writeView = buffer.duplicate();
+        _readView = buffer.duplicate();
+        _file = file;
+    }
+
+    private static int checkCapacity( int capacity )
+    {
+        if ( capacity <= 0 )
+            throw new IllegalArgumentException( "capacity must be > 0" );
+
+        return capacity;
+    }
+
+    private static FileChannel mapTemporaryFile( int capacity, Path directory )
+        throws IOException
+    {
+        var file = FileChannel.open(
+                Files.createTempFile( directory, "smack", ".pipe" ),
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE );
+
+        try
+        {
+            // Extend the file to the capacity.
+            file.write( ByteBuffer.allocate( 1 ), capacity - 1 );
+            return file;
+        }
+        catch ( IOException e )
+        {
+            JavaUtil.force( file::close );
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the passed file.  The file is closed if this fails.
+     */
+    private static ByteBuffer map( FileChannel file ) throws IOException
+    {
+        try
+        {
+            return file.map( FileChannel.MapMode.READ_WRITE, 0, file.size() );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            JavaUtil.force( file::close );
+            throw e;
+        }
+    }
+
+    @Override
+    public OutputStream getWriteEnd()
+    {
+        return _writeEnd;
+    }
+
+    @Override
+    public InputStream getReadEnd()
+    {
+        return _readEnd;
+    }
+
+    @Override
+    public WritableByteChannel getWriteChannel()
+    {
+        return _writeChannel;
+    }
+
+    @Override
+    public ReadableByteChannel getReadChannel()
+    {
+        return _readChannel;
+    }
+
+    /**
+     * @param count A byte counter.
+     * @return The buffer position of the counter.
+     */
+    private int position( long count )
+    {
+        return (int)(count % _capacity);
+    }
+
+    /**
+     * @return The number of bytes that can be read.
+     */
+    private int used()
+    {
+        return (int)(_written - _read);
+    }
+
+    private static void unpark( Thread thread )
+    {
+        if ( thread != null )
+            LockSupport.unpark( thread );
+    }
+
+    /**
+     * Waits until the buffer has space.
+     */
+    private void awaitSpace() throws IOException
+    {
+        for ( int i = 0 ; ; i++ )
+        {
+            if ( _closed )
+                throw new IOException( "Pipe broken." );
+
+            if ( used() < _capacity )
+                return;
+
+            if ( i < SPINS )
+            {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            // Announce before the check.  The read end checks for
+            // a parked writer after it consumed data.
+            _parkedWriter = Thread.currentThread();
+            try
+            {
+                if ( ! _closed && used() == _capacity )
+                    LockSupport.park( this );
+            }
+            finally
+            {
+                _parkedWriter = null;
+            }
+
+            if ( Thread.interrupted() )
+                throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Waits until the buffer holds data.
+     *
+     * @return {@code false} if the pipe is closed and drained.
+     */
+    private boolean awaitData() throws IOException
+    {
+        for ( int i = 0 ; ; i++ )
+        {
+            if ( used() > 0 )
+                return true;
+
+            if ( _closed )
+                return used() > 0;
+
+            if ( i < SPINS )
+            {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            _parkedReader = Thread.currentThread();
+            try
+            {
+                if ( ! _closed && used() == 0 )
+                    LockSupport.park( this );
+            }
+            finally
+            {
+                _parkedReader = null;
+            }
+
+            if ( Thread.interrupted() )
+                throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of the passed buffer.
+     *
+     * @param src The bytes to write.
+     * @return The number of bytes written.
+     * @throws IOException If the pipe got closed.
+     */
+    private int writeBuffer( ByteBuffer src ) throws IOException
+    {
+        int result = src.remaining();
+
+        while ( src.hasRemaining() )
+        {
+            awaitSpace();
+
+            long written = _written;
+            int position = position( written );
+            int count = Math.min(
+                    src.remaining(),
+                    Math.min(
+                            _capacity - used(),
+                            _capacity - position ) );
+
+            int limit = src.limit();
+            src.limit( src.position() + count );
+            _writeView.position( position );
+            _writeView.put( src );
+            src.limit( limit );
+
+            _written = written + count;
+
+            unpark( _parkedReader );
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the available bytes into the passed buffer, blocking until
+     * at least one byte is available.
+     *
+     * @param dst The target buffer.
+     * @return The number of bytes read, -1 if the pipe is closed and
+     * drained.
+     * @throws IOException If the operation was interrupted.
+     */
+    private int readBuffer( ByteBuffer dst ) throws IOException
+    {
+        if ( ! dst.hasRemaining() )
+            return 0;
+
+        if ( ! awaitData() )
+            return -1;
+
+        long read = _read;
+        int position = position( read );
+        int count = Math.min(
+                dst.remaining(),
+                Math.min(
+                        used(),
+                        _capacity - position ) );
+
+        _readView.limit( position + count );
+        _readView.position( position );
+        dst.put( _readView );
+        _readView.limit( _capacity );
+
+        _read = read + count;
+
+        unpark( _parkedWriter );
+
+        return count;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( _closed )
+            return;
+
+        _closed = true;
+
+        // Ensure wake-up and termination of parked threads.
+        unpark( _parkedWriter );
+        unpark( _parkedReader );
+
+        if ( _file != null )
+            JavaUtil.force( _file::close );
+    }
+}
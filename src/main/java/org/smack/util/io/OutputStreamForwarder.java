@@ -8,16 +8,30 @@
 package org.smack.util.io;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.util.Arrays;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Objects;
 
 import org.jdesktop.util.InterruptibleThread;
 
 /**
  * An output stream that decouples the writing thread from the thread that
  * forwards the data to the passed target stream.
+ * <p>
+ * Written data is coalesced into chunks of a fixed size.  The forwarding
+ * thread takes all queued chunks at once, writes them to the target and
+ * flushes the target.  Chunks are reused.
+ * </p>
+ * <p>
+ * {@link #flush()} waits until all data written before is forwarded.
+ * {@link #close()} waits until the queue is drained or a timeout
+ * elapsed.  The forwarder counts the queued, written and dropped bytes
+ * and the maximum number of queued chunks.  This allows to size the
+ * capacity based on measurements.
+ * </p>
  *
  * @version $Rev$
  * @author Michael Binz
@@ -25,6 +39,57 @@ import org.jdesktop.util.InterruptibleThread;
 final public class OutputStreamForwarder
     extends OutputStream
 {
+    /**
+     * Defines the behavior of a write if the queue is full.  A write
+     * larger than the whole queue is accepted by all policies if the
+     * queue is empty.  It then blocks until all data is queued.
+     */
+    public enum FullPolicy
+    {
+        /**
+         * The write blocks until the forwarding thread made room.
+         */
+        BLOCK,
+        /**
+         * The written data is dropped.
+         */
+        DROP,
+        /**
+         * The write throws an {@link IOException}.
+         */
+        FAIL
+    }
+
+    /**
+     * The default chunk size.
+     */
+    public static final int CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * The default time {@link #close()} waits for the queue to drain.
+     */
+    public static final Duration CLOSE_TIMEOUT = Duration.ofSeconds( 10 );
+
+    /**
+     * The time {@link #close(Duration)} waits for the forwarding thread
+     * to terminate before leaving the close of the target to it.
+     */
+    private static final long PUMP_JOIN_MILLIS = 1000;
+
+    /**
+     * A buffer holding coalesced writes.
+     */
+    private static final class Chunk
+    {
+        final byte[] _data;
+        int _length;
+
+        Chunk( int size )
+        {
+            _data = new byte[size];
+        }
+    }
+
     /**
      * The target output stream.
      */
@@ -37,23 +102,91 @@ final public class OutputStreamForwarder
     volatile private IOException _failed;
 
     /**
-     * The queue that holds the data packets to forward.
+     * The queued chunks.  The last chunk may be partially filled and
+     * receives further writes.  Also the lock guarding the queue
+     * state.
      */
-    private final BlockingQueue<byte[]> _outgoing;
+    private final ArrayDeque<Chunk> _outgoing = new ArrayDeque<>();
+
+    /**
+     * Chunks for reuse.
+     */
+    private final ArrayDeque<Chunk> _pool = new ArrayDeque<>();
+
+    /**
+     * The maximum number of queued chunks.
+     */
+    private final int _capacity;
+
+    private final int _chunkSize;
+
+    private final FullPolicy _policy;
+
+    /**
+     * Set when the stream is closed.  Guarded by the queue lock.
+     */
+    private boolean _closed;
+
+    /**
+     * Set when the data pump is stopped.  Guarded by the queue lock.
+     */
+    private boolean _stopped;
+
+    /**
+     * Set when the target is closed.  Guarded by the queue lock.
+     */
+    private boolean _targetClosed;
+
+    /**
+     * The exception thrown when closing the target, if any.  Guarded by
+     * the queue lock.
+     */
+    private IOException _closeFailure;
+
+    /**
+     * The number of bytes queued.  Guarded by the queue lock.
+     */
+    private long _bytesQueued;
+
+    /**
+     * The number of bytes dropped.  Guarded by the queue lock.
+     */
+    private long _bytesDropped;
+
+    /**
+     * The maximum number of queued chunks.  Guarded by the queue lock.
+     */
+    private int _highWaterMark;
+
+    /**
+     * The number of bytes written to the target.  Modified by the data
+     * pump holding the queue lock.
+     */
+    private volatile long _bytesWritten;
 
     /**
      * Create an instance.
      *
      * @param target The target output stream receiving incoming data.
+     * @param capacity The maximum number of queued chunks.
+     * @param chunkSize The size of the chunks.
+     * @param policy The behavior of writes if the queue is full.
      */
-    public OutputStreamForwarder( OutputStream target, int capacity )
+    public OutputStreamForwarder(
+            OutputStream target,
+            int capacity,
+            int chunkSize,
+            FullPolicy policy )
     {
-        if ( null == target )
-            throw new NullPointerException();
-
-        _outgoing = new ArrayBlockingQueue<byte[]>( capacity );
+        if ( capacity <= 0 )
+            throw new IllegalArgumentException( "capacity must be > 0" );
+        if ( chunkSize <= 0 )
+            throw new IllegalArgumentException( "chunkSize must be > 0" );
 
-        _target = target;
+        _target = Objects.requireNonNull( target );
+        _capacity = capacity;
+        _chunkSize = chunkSize;
+        _policy = Objects.requireNonNull( policy );
 
         _dataPumpThread = new InterruptibleThread(
                 _dataPump,
@@ -62,6 +195,25 @@ final public class OutputStreamForwarder
         _dataPumpThread.start();
     }
 
+    /**
+     * Create an instance that fails writes if the queue is full.
+     * <p>
+     * The capacity counts chunks of {@link #CHUNK_SIZE} bytes.  Former
+     * versions counted the individual writes.  Since writes are
+     * coalesced, writes of up to {@link #CHUNK_SIZE} bytes never fail
+     * earlier than before.  A write larger than the whole queue is
+     * accepted if the queue is empty, and waits until the forwarding
+     * thread took the data.
+     * </p>
+     *
+     * @param target The target output stream receiving incoming data.
+     * @param capacity The maximum number of queued chunks.
+     */
+    public OutputStreamForwarder( OutputStream target, int capacity )
+    {
+        this( target, capacity, CHUNK_SIZE, FullPolicy.FAIL );
+    }
+
     /**
      * The thread forwarding the data.
      */
@@ -75,39 +227,235 @@ final public class OutputStreamForwarder
         @Override
         public void run()
         {
+            try
+            {
+                pump();
+            }
+            finally
+            {
+                // If the stream was closed while the pump was writing
+                // the close of the target is left to this thread.
+                synchronized ( _outgoing )
+                {
+                    if ( _stopped )
+                        closeTarget();
+                }
+            }
+        }
+
+        private void pump()
+        {
+            var batch = new ArrayList<Chunk>();
+
             while ( ! Thread.currentThread().isInterrupted() )
                 try
                 {
-                    _target.write( _outgoing.take() );
+                    synchronized ( _outgoing )
+                    {
+                        while ( _outgoing.isEmpty() )
+                            _outgoing.wait();
+
+                        batch.addAll( _outgoing );
+                        _outgoing.clear();
+
+                        // Wake up blocked writers.
+                        _outgoing.notifyAll();
+                    }
+
+                    long written = 0;
+                    for ( var c : batch )
+                    {
+                        _target.write( c._data, 0, c._length );
+                        written += c._length;
+                    }
+                    _target.flush();
+
+                    synchronized ( _outgoing )
+                    {
+                        for ( var c : batch )
+                        {
+                            c._length = 0;
+                            _pool.push( c );
+                        }
+
+                        _bytesWritten += written;
+
+                        // Wake up threads waiting for the drain.
+                        _outgoing.notifyAll();
+                    }
+
+                    batch.clear();
                 }
                 catch ( IOException e )
                 {
-                    _failed = e;
+                    fail( e );
+                    return;
+                }
+                catch ( RuntimeException e )
+                {
+                    fail( new IOException( "Forwarding failed.", e ) );
                     return;
                 }
+                catch ( Error e )
+                {
+                    fail( new IOException( "Forwarding failed.", e ) );
+                    throw e;
+                }
                 catch ( InterruptedException e )
                 {
                     return;
                 }
         }
+
+        /**
+         * Records the failure and wakes up waiting writers.
+         */
+        private void fail( IOException e )
+        {
+            _failed = e;
+            synchronized ( _outgoing )
+            {
+                _outgoing.notifyAll();
+            }
+        }
     };
 
-    /* (non-Javadoc)
-     * @see java.io.OutputStream#write(byte[])
+    /**
+     * @return The number of bytes that can be queued without waiting.
+     * Called holding the queue lock.
      */
-    @Override
-    public void write( byte[] b ) throws IOException
+    private long room()
+    {
+        var tail = _outgoing.peekLast();
+
+        long result = (long)(_capacity - _outgoing.size()) * _chunkSize;
+
+        if ( tail != null )
+            result += _chunkSize - tail._length;
+
+        return result;
+    }
+
+    /**
+     * Get a chunk to fill.  Called holding the queue lock.
+     */
+    private Chunk obtainChunk()
+    {
+        var result = _pool.poll();
+
+        return result != null ? result : new Chunk( _chunkSize );
+    }
+
+    /**
+     * Waits until a chunk can be queued.  Called holding the queue lock.
+     */
+    private void awaitRoom() throws IOException
+    {
+        try
+        {
+            while ( _outgoing.size() == _capacity )
+            {
+                checkWritable();
+                _outgoing.wait();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void checkFailed() throws IOException
     {
         if ( _failed != null )
             throw _failed;
+    }
 
-        try
+    /**
+     * Checks if data can be queued.  Called holding the queue lock.
+     */
+    private void checkWritable() throws IOException
+    {
+        checkFailed();
+
+        if ( _closed )
+            throw new IOException( "Stream closed." );
+    }
+
+    /**
+     * Waits until all queued bytes are written to the target.  Called
+     * holding the queue lock.
+     *
+     * @param deadline The latest {@link System#nanoTime()} to wait for.
+     * @return {@code true} if the queue was drained.
+     */
+    private boolean awaitDrained( long deadline )
+        throws IOException, InterruptedException
+    {
+        while ( _bytesWritten < _bytesQueued )
         {
-            _outgoing.add( b.clone() );
+            checkFailed();
+
+            long remaining = deadline - System.nanoTime();
+            if ( remaining <= 0 )
+                return false;
+
+            _outgoing.wait( Math.max( 1, remaining / 1_000_000 ) );
         }
-        catch ( IllegalStateException e )
+
+        return true;
+    }
+
+    /**
+     * Appends data to the queue.
+     */
+    private void enqueue( byte[] b, int off, int len ) throws IOException
+    {
+        synchronized ( _outgoing )
         {
-            throw new IOException( "Pipe broken -- no consumer." );
+            checkWritable();
+
+            // A write larger than the whole queue is accepted if the
+            // queue is empty.  It then waits for the data pump.
+            long needed = Math.min( len, (long)_capacity * _chunkSize );
+
+            if ( _policy != FullPolicy.BLOCK && room() < needed )
+            {
+                if ( _policy == FullPolicy.DROP )
+                {
+                    _bytesDropped += len;
+                    return;
+                }
+
+                throw new IOException( "Pipe broken -- no consumer." );
+            }
+
+            while ( len > 0 )
+            {
+                var tail = _outgoing.peekLast();
+
+                if ( tail == null || tail._length == _chunkSize )
+                {
+                    awaitRoom();
+
+                    tail = obtainChunk();
+                    _outgoing.addLast( tail );
+                    _highWaterMark =
+                            Math.max( _highWaterMark, _outgoing.size() );
+
+                    // Wake up the data pump waiting on an empty queue.
+                    if ( _outgoing.size() == 1 )
+                        _outgoing.notifyAll();
+                }
+
+                int count = Math.min( len, _chunkSize - tail._length );
+                System.arraycopy( b, off, tail._data, tail._length, count );
+                tail._length += count;
+                _bytesQueued += count;
+
+                off += count;
+                len -= count;
+            }
         }
     }
 
@@ -117,55 +465,204 @@ final public class OutputStreamForwarder
     @Override
     public void write( byte[] b, int off, int len ) throws IOException
     {
-        if ( _failed != null )
-            throw _failed;
+        Objects.checkFromIndexSize( off, len, b.length );
 
-        try
+        enqueue( b, off, len );
+    }
+
+    @Override
+    public void write( int b ) throws IOException
+    {
+        synchronized ( _outgoing )
         {
-            _outgoing.add( Arrays.copyOfRange( b, off, len ) );
+            checkWritable();
+
+            var tail = _outgoing.peekLast();
+
+            if ( tail != null && tail._length < _chunkSize )
+            {
+                tail._data[tail._length++] = (byte)b;
+                _bytesQueued++;
+                return;
+            }
         }
-        catch ( IllegalStateException e )
+
+        enqueue( new byte[] { (byte)b }, 0, 1 );
+    }
+
+    /**
+     * Waits until all data written before is forwarded to the target
+     * and the target is flushed.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        synchronized ( _outgoing )
         {
-            throw new IOException( "Pipe broken -- no consumer." );
+            try
+            {
+                while ( _bytesWritten < _bytesQueued )
+                {
+                    checkFailed();
+
+                    if ( _stopped )
+                        throw new IOException( "Stream closed." );
+
+                    _outgoing.wait();
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                throw new InterruptedIOException();
+            }
         }
     }
 
+    /**
+     * Closes the stream and the target after the queued data is
+     * forwarded, waiting at most {@link #CLOSE_TIMEOUT}.
+     */
     @Override
-    public void write( int b ) throws IOException
+    public void close() throws IOException
     {
-        if ( _failed != null )
-            throw _failed;
+        close( CLOSE_TIMEOUT );
+    }
+
+    /**
+     * Closes the stream and the target after the queued data is
+     * forwarded.  Data not forwarded after the timeout is lost.  If the
+     * forwarding thread is still blocked in a write to the target, the
+     * target is closed by this thread when the write returns.
+     *
+     * @param timeout The maximum time to wait for the queue to drain.
+     * @return {@code true} if all queued data was forwarded.
+     * @throws IOException If forwarding or closing the target failed.
+     */
+    public boolean close( Duration timeout ) throws IOException
+    {
+        boolean result = false;
+        IOException failure = null;
 
+        synchronized ( _outgoing )
+        {
+            if ( _closed )
+                return _bytesWritten == _bytesQueued;
+
+            _closed = true;
+
+            // Wake up blocked writers.
+            _outgoing.notifyAll();
+
+            try
+            {
+                result = awaitDrained(
+                        System.nanoTime() + timeout.toNanos() );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                failure = new InterruptedIOException();
+            }
+            catch ( IOException e )
+            {
+                failure = e;
+            }
+
+            _stopped = true;
+            _outgoing.notifyAll();
+            _dataPumpThread.interrupt();
+        }
+
+        // The target is not closed while the pump may still write to it.
+        // If the pump does not terminate in time it closes the target
+        // when its pending write returns.
         try
         {
-            _outgoing.add( new byte[] { (byte)b } );
+            _dataPumpThread.join( PUMP_JOIN_MILLIS );
         }
-        catch ( IllegalStateException e )
+        catch ( InterruptedException e )
         {
-            throw new IOException( "Pipe broken -- no consumer." );
+            Thread.currentThread().interrupt();
+            if ( failure == null )
+                failure = new InterruptedIOException();
         }
+
+        synchronized ( _outgoing )
+        {
+            if ( ! _dataPumpThread.isAlive() )
+                closeTarget();
+
+            if ( failure == null )
+                failure = _closeFailure;
+        }
+
+        if ( failure != null )
+            throw failure;
+
+        return result;
     }
 
-    /* (non-Javadoc)
-     * @see java.io.OutputStream#flush()
+    /**
+     * Closes the target once.  Called holding the queue lock by the
+     * data pump or after it terminated.
      */
-    @Override
-    public void flush() throws IOException
+    private void closeTarget()
     {
-        if ( _failed != null )
-            throw _failed;
+        if ( _targetClosed )
+            return;
 
-        _target.flush();
+        _targetClosed = true;
+
+        try
+        {
+            _target.close();
+        }
+        catch ( IOException e )
+        {
+            _closeFailure = e;
+        }
     }
 
-    /* (non-Javadoc)
-     * @see java.io.OutputStream#close()
+    /**
+     * @return The number of bytes accepted for forwarding.
      */
-    @Override
-    public void close() throws IOException
+    public long getBytesQueued()
+    {
+        synchronized ( _outgoing )
+        {
+            return _bytesQueued;
+        }
+    }
+
+    /**
+     * @return The number of bytes written to the target.
+     */
+    public long getBytesWritten()
     {
-        _dataPumpThread.interrupt();
-        _target.flush();
-        _target.close();
+        return _bytesWritten;
+    }
+
+    /**
+     * @return The number of bytes dropped by the {@link FullPolicy#DROP}
+     * policy.
+     */
+    public long getBytesDropped()
+    {
+        synchronized ( _outgoing )
+        {
+            return _bytesDropped;
+        }
+    }
+
+    /**
+     * @return The maximum number of chunks that were queued at the
+     * same time.
+     */
+    public int getHighWaterMark()
+    {
+        synchronized ( _outgoing )
+        {
+            return _highWaterMark;
+        }
     }
 }
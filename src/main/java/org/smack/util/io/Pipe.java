@@ -7,8 +7,13 @@
  */
 package org.smack.util.io;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * A simple pipe.  Write to the write end, read from the read end.
@@ -32,6 +37,56 @@ public interface Pipe extends AutoCloseable
      */
     InputStream getReadEnd();
 
+    /**
+     * Get the pipe's write end as a channel.  Writes to the channel
+     * block until all bytes are written.  Closing the channel closes
+     * the pipe.  The default implementation wraps {@link #getWriteEnd()}.
+     *
+     * @return The write channel.
+     */
+    default WritableByteChannel getWriteChannel()
+    {
+        return Channels.newChannel( getWriteEnd() );
+    }
+
+    /**
+     * Get the pipe's read end as a channel.  Reads from the channel
+     * block until at least one byte is available.  Closing the channel
+     * closes the pipe.  The default implementation wraps
+     * {@link #getReadEnd()}.
+     *
+     * @return The read channel.
+     */
+    default ReadableByteChannel getReadChannel()
+    {
+        return Channels.newChannel( getReadEnd() );
+    }
+
+    /**
+     * Write the remaining bytes of a buffer into the pipe.
+     *
+     * @param src The buffer to write.
+     * @return The number of bytes written.
+     * @throws IOException If the pipe is closed.
+     */
+    default int write( ByteBuffer src ) throws IOException
+    {
+        return getWriteChannel().write( src );
+    }
+
+    /**
+     * Read from the pipe into a buffer.  Blocks until at least one
+     * byte is available.
+     *
+     * @param dst The buffer to fill.
+     * @return The number of bytes read, -1 at the end of the stream.
+     * @throws IOException In case of an error.
+     */
+    default int read( ByteBuffer dst ) throws IOException
+    {
+        return getReadChannel().read( dst );
+    }
+
     /**
      * Close the pipe.
      */
@@ -11,9 +11,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
 
 /**
  * A simple pipe.  Write to the write end, read from the read end.
+ * <p>
+ * The ends lock independently.  The write end only modifies the write
+ * position, the read end only the read position.  Bulk operations copy
+ * contiguous segments of the ring buffer and wake up the other end only
+ * if the pipe was empty respectively full.
+ * </p>
  *
  * @version $Id$
  * @author Michael Binz
@@ -25,43 +36,33 @@ public final class PowerPipe
 
     private final byte[] _buffer;
 
-    private int _currentWritePosition = 0;
-    private int _currentReadPosition = 0;
-
-    private volatile boolean _closed = false;
-
     /**
-     * The pipe's singular write end.
+     * The number of spins before an end waits for the other end.
      */
-    private final OutputStream _writeEnd = new OutputStream()
-    {
-        private void writeImpl( int b ) throws IOException, InterruptedException
-        {
-            synchronized ( _writeEnd )
-            {
-                while ( true )
-                {
-                    if ( _closed )
-                        throw new IOException( "Pipe broken." );
+    private final int _spins;
 
-                    if ( ! isFull() )
-                        break;
+    private volatile int _currentWritePosition = 0;
+    private volatile int _currentReadPosition = 0;
 
-                    wait();
-                }
+    private volatile boolean _closed = false;
 
-                _buffer[ _currentWritePosition ] =
-                        (byte)b;
-                _currentWritePosition =
-                        boundIdx( _currentWritePosition + 1 );
-            }
+    /**
+     * The write end waits here for space.  Separate from the end's lock
+     * so that the ends never hold each other's lock.
+     */
+    private final Object _notFull = new Object();
 
-            synchronized ( _readEnd )
-            {
-                _readEnd.notify();
-            }
-        }
+    /**
+     * The read end waits here for data.
+     */
+    private final Object _notEmpty = new Object();
 
+    /**
+     * The pipe's singular write end.  Also the lock of the write
+     * operations.
+     */
+    private final OutputStream _writeEnd = new OutputStream()
+    {
         @Override
         public void write( int b ) throws IOException
         {
@@ -75,6 +76,14 @@ public final class PowerPipe
             }
         }
 
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException
+        {
+            Objects.checkFromIndexSize( off, len, b.length );
+
+            writeBuffer( ByteBuffer.wrap( b, off, len ) );
+        }
+
         @Override
         public void close() throws IOException
         {
@@ -84,47 +93,10 @@ public final class PowerPipe
     };
 
     /**
-     * The pipe's read end.
+     * The pipe's read end.  Also the lock of the read operations.
      */
     private final InputStream _readEnd = new InputStream()
     {
-        private int readImpl() throws InterruptedException
-        {
-            int result = 0;
-
-            synchronized ( _readEnd )
-            {
-                while ( true )
-                {
-                    if ( _closed )
-                        // TODO better ex pipe broken?
-                        return -1;
-
-                    if ( ! isEmpty() )
-                        break;
-
-                    // We block here on an empty read stream, waiting for
-                    // data to be written or an asynchronous close of the
-                    // channel.
-                    wait();
-                }
-
-                result =
-                        _buffer[ _currentReadPosition ];
-                _currentReadPosition =
-                        boundIdx( _currentReadPosition+1 );
-            }
-
-            // We read a byte, kick the write end.
-            synchronized ( _writeEnd )
-            {
-                _writeEnd.notify();
-            }
-
-            // Mask to a byte.
-            return result & 0xff;
-        }
-
         @Override
         public int read() throws IOException
         {
@@ -138,6 +110,23 @@ public final class PowerPipe
             }
         }
 
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException
+        {
+            Objects.checkFromIndexSize( off, len, b.length );
+
+            return readBuffer( ByteBuffer.wrap( b, off, len ) );
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            if ( _closed )
+                return 0;
+
+            return used( _currentReadPosition );
+        }
+
         @Override
         public void close() throws IOException
         {
@@ -146,18 +135,85 @@ public final class PowerPipe
         };
     };
 
+    /**
+     * The channel view of the write end.
+     */
+    private final WritableByteChannel _writeChannel = new WritableByteChannel()
+    {
+        @Override
+        public boolean isOpen()
+        {
+            return ! _closed;
+        }
+
+        @Override
+        public void close()
+        {
+            PowerPipe.this.close();
+        }
+
+        @Override
+        public int write( ByteBuffer src ) throws IOException
+        {
+            if ( _closed )
+                throw new ClosedChannelException();
+
+            return writeBuffer( src );
+        }
+    };
+
+    /**
+     * The channel view of the read end.
+     */
+    private final ReadableByteChannel _readChannel = new ReadableByteChannel()
+    {
+        @Override
+        public boolean isOpen()
+        {
+            return ! _closed;
+        }
+
+        @Override
+        public void close()
+        {
+            PowerPipe.this.close();
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            return readBuffer( dst );
+        }
+    };
+
     /**
      * Create an instance.
      *
      * @param bufferSize The size of the pipe's internal buffer.
+     * @param spins The number of busy-wait iterations before a blocked
+     * end waits.  Spinning reduces latency if the other end is active
+     * on another processor.
      */
-    public PowerPipe( int bufferSize )
+    public PowerPipe( int bufferSize, int spins )
     {
         if ( bufferSize <= 0 )
             throw new IllegalArgumentException( "bufferSize must be > 0" );
+        if ( spins < 0 )
+            throw new IllegalArgumentException( "spins must be >= 0" );
 
         // Allocate one larger since our invariant requires that.
         _buffer = new byte[ bufferSize+1 ];
+        _spins = spins;
+    }
+
+    /**
+     * Create an instance.
+     *
+     * @param bufferSize The size of the pipe's internal buffer.
+     */
+    public PowerPipe( int bufferSize )
+    {
+        this( bufferSize, 0 );
     }
 
     /**
@@ -190,9 +246,208 @@ public final class PowerPipe
         return _readEnd;
     }
 
+    @Override
+    public WritableByteChannel getWriteChannel()
+    {
+        return _writeChannel;
+    }
+
+    @Override
+    public ReadableByteChannel getReadChannel()
+    {
+        return _readChannel;
+    }
+
+    /**
+     * Waits until the buffer has space.  Called holding the
+     * write end's lock.
+     */
+    private void awaitSpace() throws IOException, InterruptedException
+    {
+        if ( ! _closed && ! isFull() )
+            return;
+
+        for ( int i = 0 ; i < _spins && isFull() && ! _closed ; i++ )
+            Thread.onSpinWait();
+
+        synchronized ( _notFull )
+        {
+            while ( true )
+            {
+                if ( _closed )
+                    throw new IOException( "Pipe broken." );
+
+                if ( ! isFull() )
+                    break;
+
+                _notFull.wait();
+            }
+        }
+    }
+
+    /**
+     * Waits until the buffer holds data.  Called holding the
+     * read end's lock.
+     *
+     * @return {@code false} if the pipe got closed.
+     */
+    private boolean awaitData() throws InterruptedException
+    {
+        if ( ! _closed && ! isEmpty() )
+            return true;
+
+        for ( int i = 0 ; i < _spins && isEmpty() && ! _closed ; i++ )
+            Thread.onSpinWait();
+
+        synchronized ( _notEmpty )
+        {
+            while ( true )
+            {
+                if ( _closed )
+                    // TODO better ex pipe broken?
+                    return false;
+
+                if ( ! isEmpty() )
+                    return true;
+
+                // We block here on an empty read stream, waiting for
+                // data to be written or an asynchronous close of the
+                // channel.
+                _notEmpty.wait();
+            }
+        }
+    }
+
+    private void writeImpl( int b ) throws IOException, InterruptedException
+    {
+        synchronized ( _writeEnd )
+        {
+            awaitSpace();
+
+            int position = _currentWritePosition;
+            _buffer[ position ] =
+                    (byte)b;
+            _currentWritePosition =
+                    boundIdx( position + 1 );
+
+            // The read end waits only on an empty buffer.
+            if ( _currentReadPosition == position )
+                signal( _notEmpty );
+        }
+    }
+
     /**
+     * Writes all remaining bytes of the passed buffer.  The bytes are
+     * copied directly into the ring buffer.
      *
-     * @return
+     * @param src The bytes to write.
+     * @return The number of bytes written.
+     * @throws IOException If the pipe got closed.
+     */
+    private int writeBuffer( ByteBuffer src ) throws IOException
+    {
+        int result = src.remaining();
+
+        try
+        {
+            synchronized ( _writeEnd )
+            {
+                while ( src.hasRemaining() )
+                {
+                    awaitSpace();
+
+                    int position = _currentWritePosition;
+                    int count = Math.min(
+                            src.remaining(),
+                            Math.min(
+                                    free( position ),
+                                    _buffer.length - position ) );
+
+                    src.get( _buffer, position, count );
+                    _currentWritePosition = boundIdx( position + count );
+
+                    if ( _currentReadPosition == position )
+                        signal( _notEmpty );
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            throw new InterruptedIOException();
+        }
+
+        return result;
+    }
+
+    private int readImpl() throws InterruptedException
+    {
+        int result = 0;
+
+        synchronized ( _readEnd )
+        {
+            if ( ! awaitData() )
+                return -1;
+
+            int position = _currentReadPosition;
+            result =
+                    _buffer[ position ];
+            _currentReadPosition =
+                    boundIdx( position + 1 );
+
+            // We read a byte, kick a write end waiting on a full buffer.
+            if ( boundIdx( _currentWritePosition + 1 ) == position )
+                signal( _notFull );
+        }
+
+        // Mask to a byte.
+        return result & 0xff;
+    }
+
+    /**
+     * Reads the available bytes into the passed buffer, blocking until
+     * at least one byte is available.  The bytes are copied directly
+     * from the ring buffer.
+     *
+     * @param dst The target buffer.
+     * @return The number of bytes read, -1 if the pipe got closed.
+     * @throws IOException If the operation was interrupted.
+     */
+    private int readBuffer( ByteBuffer dst ) throws IOException
+    {
+        if ( ! dst.hasRemaining() )
+            return 0;
+
+        try
+        {
+            synchronized ( _readEnd )
+            {
+                if ( ! awaitData() )
+                    return -1;
+
+                int position = _currentReadPosition;
+                int count = Math.min(
+                        dst.remaining(),
+                        Math.min(
+                                used( position ),
+                                _buffer.length - position ) );
+
+                dst.put( _buffer, position, count );
+                _currentReadPosition = boundIdx( position + count );
+
+                if ( boundIdx( _currentWritePosition + 1 ) == position )
+                    signal( _notFull );
+
+                return count;
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * @return {@code true} if no byte can be written.
      */
     private boolean isFull()
     {
@@ -203,9 +458,8 @@ public final class PowerPipe
     }
 
     /**
-     *
-     * @param idx
-     * @return
+     * @param idx A position that may have left the buffer.
+     * @return The position wrapped into the buffer.
      */
     private int boundIdx( int idx )
     {
@@ -213,14 +467,44 @@ public final class PowerPipe
     }
 
     /**
-     *
-     * @return
+     * @return {@code true} if no byte can be read.
      */
     private boolean isEmpty()
     {
         return _currentReadPosition == _currentWritePosition;
     }
 
+    /**
+     * @param readPosition The read position.
+     * @return The number of bytes that can be read.
+     */
+    private int used( int readPosition )
+    {
+        return boundIdx(
+                _currentWritePosition - readPosition + _buffer.length );
+    }
+
+    /**
+     * @param writePosition The write position.
+     * @return The number of bytes that can be written.
+     */
+    private int free( int writePosition )
+    {
+        return boundIdx(
+                _currentReadPosition - writePosition - 1 + _buffer.length );
+    }
+
+    /**
+     * Wake up the threads waiting on the passed monitor.
+     */
+    private static void signal( Object monitor )
+    {
+        synchronized ( monitor )
+        {
+            monitor.notifyAll();
+        }
+    }
+
     @Override
     public void close()
     {
@@ -230,13 +514,7 @@ public final class PowerPipe
         _closed = true;
 
         // Ensure wake-up and termination of all waiting threads.
-        synchronized ( _writeEnd )
-        {
-            _writeEnd.notifyAll();
-        }
-        synchronized ( _readEnd )
-        {
-            _readEnd.notifyAll();
-        }
+        signal( _notFull );
+        signal( _notEmpty );
     }
 }
@@ -12,6 +12,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 import org.smack.util.JavaUtil;
 
@@ -28,6 +31,9 @@ public final class SimplePipe implements Pipe
     private final PipedOutputStream _writeEnd;
     private final PipedInputStream _readEnd;
 
+    private final WritableByteChannel _writeChannel;
+    private final ReadableByteChannel _readChannel;
+
     /**
      * Create an instance.
      *
@@ -46,6 +52,9 @@ public final class SimplePipe implements Pipe
             // possible in the context of this implementation.
             throw new InternalError( e.toString() );
         }
+
+        _writeChannel = Channels.newChannel( _writeEnd );
+        _readChannel = Channels.newChannel( _readEnd );
     }
 
     /**
@@ -78,15 +87,28 @@ public final class SimplePipe implements Pipe
         return _readEnd;
     }
 
+    @Override
+    public WritableByteChannel getWriteChannel()
+    {
+        return _writeChannel;
+    }
+
+    @Override
+    public ReadableByteChannel getReadChannel()
+    {
+        return _readChannel;
+    }
+
     /**
      * Close the pipe.
      */
     @Override
     public void close()
     {
+        // Closing the channels closes the streams.
         JavaUtil.force(
-                _readEnd::close );
+                _readChannel::close );
         JavaUtil.force(
-                _writeEnd::close );
+                _writeChannel::close );
     }
 }
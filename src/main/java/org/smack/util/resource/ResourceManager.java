@@ -76,7 +76,7 @@ public class ResourceManager
             new WeakHashMap<>();
 
     private final WeakMapWithProducer<Class<?>, ResourceMap> _resourceMapCache =
-            new WeakMapWithProducer<>( ResourceMap::getResourceMap );
+            new WeakMapWithProducer<>( this::createResourceMap );
 
     /**
      * Create an instance.  Commonly done via the ServiceManager.
@@ -177,6 +177,25 @@ public class ResourceManager
                     "Key '%s' defined in map does not match property.", c ) );
     }
 
+    /**
+     * Creates the resource map for a cache entry.  The superclass maps
+     * are taken from the cache, so that each class in a hierarchy
+     * is loaded only once.
+     *
+     * @param cl The class for which a resource map is requested.
+     * @return The resource map for the passed class.
+     */
+    private ResourceMap createResourceMap( Class<?> cl )
+    {
+        var superclass = cl.getSuperclass();
+
+        return ResourceMap.create(
+                cl,
+                superclass == null ?
+                        null :
+                        _resourceMapCache.get( superclass ) );
+    }
+
     /**
      * @param cl The class for which a resource map is requested.
      * @return The resource map for the passed class. null if
@@ -184,7 +203,9 @@ public class ResourceManager
      */
     public ResourceMap getResourceMap( Class<?> cl )
     {
-        return _resourceMapCache.get( cl );
+        var result = _resourceMapCache.get( cl );
+
+        return result.isDefined() ? result : null;
     }
 
     /**
@@ -194,12 +215,7 @@ public class ResourceManager
      */
     public ResourceMap getResourceMap2( Class<?> cl )
     {
-        var result =_resourceMapCache.get( cl );
-
-        if ( result != null )
-            return result;
-
-        return ResourceMap.getResourceMapExt( cl );
+        return _resourceMapCache.get( cl );
     }
 
     /**
@@ -51,6 +51,13 @@ public class ResourceMap extends HashMap<String, String>
      */
     private final URL _url;
 
+    /**
+     * The resource map of the superclass, {@code null} if the class has
+     * no superclass.  Lookups missing in this map are delegated to it,
+     * so later changes of the superclass map are visible.
+     */
+    private final ResourceMap _parent;
+
     /**
      * Creates a map containing preprocessed values from the passed
      * ResourceBundle.
@@ -293,6 +300,25 @@ public class ResourceMap extends HashMap<String, String>
         }
     }
 
+    /**
+     * Get the resource map of the superclass of the passed class.  The
+     * map is taken from the cache of the {@link ResourceManager} service.
+     *
+     * @param cl The class.
+     * @return The superclass map or {@code null} if the passed class has
+     * no superclass.
+     */
+    private static ResourceMap getSuperclassMap( Class<?> cl )
+    {
+        var superclass = cl.getSuperclass();
+
+        if ( superclass == null )
+            return null;
+
+        return ServiceManager.getApplicationService(
+                ResourceManager.class ).getResourceMap2( superclass );
+    }
+
     /**
      * Get a the resource map for a class.
      *
@@ -308,7 +334,11 @@ public class ResourceMap extends HashMap<String, String>
         if ( crb == null )
             return null;
 
-        return new ResourceMap( cl, crb.left, crb.right );
+        return new ResourceMap(
+                cl,
+                crb.left,
+                crb.right,
+                getSuperclassMap( cl ) );
     }
 
     /**
@@ -320,21 +350,29 @@ public class ResourceMap extends HashMap<String, String>
      */
     public static ResourceMap getResourceMapExt( Class<?> cl )
     {
-        try
-        {
-            String name = cl.getName();
+        return create(
+                cl,
+                getSuperclassMap( cl ) );
+    }
 
-            var resourceBundle =
-                    ResourceBundle.getBundle( name, cl.getModule() );
-            var url =
-                    getResourceContainer( cl );
+    /**
+     * Create the resource map for a class with a given parent.
+     *
+     * @param cl The class.
+     * @param parent The resource map of the superclass.  May be
+     * {@code null}.
+     * @return The corresponding resource map.  If no resources
+     * were found, the map is empty.
+     */
+    static ResourceMap create( Class<?> cl, ResourceMap parent )
+    {
+        Pair<URL, ResourceBundle> crb =
+                getClassResourcesImpl(
+                        Objects.requireNonNull( cl ) );
+        if ( crb == null )
+            return new ResourceMap( cl, parent );
 
-            return new ResourceMap( cl, url, resourceBundle );
-        }
-        catch ( MissingResourceException e )
-        {
-            return new ResourceMap( cl );
-        }
+        return new ResourceMap( cl, crb.left, crb.right, parent );
     }
 
     /**
@@ -343,13 +381,21 @@ public class ResourceMap extends HashMap<String, String>
      * @param cl The class for which the resource map is created.
      * @param url The resource url of the class.
      * @param rb The resource bundle of the class.
+     * @param parent The resource map of the superclass.  May be
+     * {@code null}.
      */
-    private ResourceMap( Class<?> cl, URL url, ResourceBundle rb )
+    private ResourceMap(
+            Class<?> cl,
+            URL url,
+            ResourceBundle rb,
+            ResourceMap parent )
     {
         _class =
                 Objects.requireNonNull( cl );
         _url =
                 Objects.requireNonNull( url );
+        _parent =
+                parent;
         try
         {
             Map<String, String> bundle =
@@ -397,12 +443,24 @@ public class ResourceMap extends HashMap<String, String>
      * Create an empty instance.
      *
      * @param cl The class for which the resource map is created.
+     * @param parent The resource map of the superclass.  May be
+     * {@code null}.
      */
-    private ResourceMap( Class<?> cl )
+    private ResourceMap( Class<?> cl, ResourceMap parent )
     {
         _class =
                 Objects.requireNonNull( cl );
         _url = null;
+        _parent =
+                parent;
+    }
+
+    /**
+     * @return {@code true} if this map was created from a resource bundle.
+     */
+    boolean isDefined()
+    {
+        return _url != null;
     }
 
     /**
@@ -506,7 +564,8 @@ public class ResourceMap extends HashMap<String, String>
 
     /**
      * Get the value to which the key is mapped.  The operation propagates
-     * along the superclass chain.
+     * along the superclass chain.  The superclass maps are resolved when
+     * the map is created, so a lookup never loads resources.
      *
      * @return The value associated with key, {@code null} if no mapping was
      * found.
@@ -514,12 +573,11 @@ public class ResourceMap extends HashMap<String, String>
     @Override
     public String get( Object key )
     {
-        if ( containsKey( key ) )
-            return super.get( key );
+        var result = super.get( key );
 
-        if ( _class.getSuperclass() == null )
-            return null;
+        if ( result != null || containsKey( key ) )
+            return result;
 
-        return getResourceMapExt( _class.getSuperclass() ).get( key );
+        return _parent == null ? null : _parent.get( key );
     }
 }
@@ -0,0 +1,256 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.application;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.smack.util.FileUtil;
+import org.smack.util.io.Redirect;
+
+public class CliApplicationBatchTest
+{
+    public static class AutBatch extends CliApplication
+    {
+        @Property
+        public int offset;
+
+        private int _count;
+
+        @Command
+        public void add( int a, int b )
+        {
+            out( "%d%n", offset + a + b );
+        }
+
+        @Command
+        public void count()
+        {
+            out( "%d%n", ++_count );
+        }
+
+        @Command
+        public void echo( String text )
+        {
+            out( "%s%n", text );
+        }
+
+        @Command
+        public void sleep( int ms ) throws InterruptedException
+        {
+            Thread.sleep( ms );
+            out( "%s:%d%n", currentCommand(), ms );
+            err( "%d%n", ms );
+        }
+    }
+
+    public static final class Label
+    {
+        private final String _text;
+
+        Label( String text, int unused )
+        {
+            _text = text;
+        }
+    }
+
+    public static class AutLabel extends CliApplication
+    {
+        static
+        {
+            addConverter( Label.class, s -> new Label( "a:" + s, 0 ) );
+        }
+
+        @Command
+        public void label( Label label )
+        {
+            out( "%s%n", label._text );
+        }
+    }
+
+    @Test
+    public void testLaterConverter() throws Exception
+    {
+        try ( var out = Redirect.out() )
+        {
+            CliApplication.launchBatch(
+                    AutLabel::new,
+                    new StringReader( "label x" ) );
+
+            // The command table of the class exists now.
+            CliApplication.addConverter(
+                    Label.class,
+                    s -> new Label( "b:" + s, 0 ) );
+
+            CliApplication.launchBatch(
+                    AutLabel::new,
+                    new StringReader( "label x" ) );
+
+            assertEquals(
+                    Arrays.asList( "a:x", "b:x" ),
+                    out.content() );
+        }
+    }
+
+    @Test
+    public void testBatch() throws Exception
+    {
+        var commands = String.join( "\n",
+                "add 1 2",
+                "",
+                "# Comment.",
+                "count",
+                "add 1 x",
+                "-offset=300 add 10 3",
+                "echo \"Donald Duck\"",
+                "unknown",
+                "count" );
+
+        try ( var out = Redirect.out(); var err = Redirect.err() )
+        {
+            int failed = CliApplication.launchBatch(
+                    AutBatch::new,
+                    new StringReader( commands ) );
+
+            assertEquals( 2, failed );
+            assertEquals(
+                    Arrays.asList( "3", "1", "313", "Donald Duck", "2" ),
+                    out.content() );
+            assertEquals(
+                    Arrays.asList(
+                            "Command 'add' failed: Could not convert 'x' to int.",
+                            "Line 5 failed: add 1 x",
+                            "Unknown command 'unknown'.",
+                            "Line 8 failed: unknown" ),
+                    err.content() );
+        }
+    }
+
+    @Test
+    public void testServe() throws Exception
+    {
+        try ( var server = new ServerSocket(
+                0,
+                0,
+                InetAddress.getLoopbackAddress() ) )
+        {
+            var token = CliApplication.createToken();
+
+            var serverThread = new Thread( () -> {
+                try
+                {
+                    CliApplication.serve( AutBatch::new, server, token );
+                }
+                catch ( Exception e )
+                {
+                    throw new AssertionError( e );
+                }
+            } );
+            serverThread.start();
+
+            try ( var client = new Socket(
+                    server.getInetAddress(),
+                    server.getLocalPort() ) )
+            {
+                client.getOutputStream().write(
+                        "wrong\ncount\n".getBytes( StandardCharsets.UTF_8 ) );
+                client.shutdownOutput();
+
+                assertEquals(
+                        Arrays.asList( "Unauthorized." ),
+                        FileUtil.readLines( client.getInputStream() ) );
+            }
+
+            // Idle connections do not block other connections.
+            var idle = new Socket(
+                    server.getInetAddress(),
+                    server.getLocalPort() );
+            var idleAuthenticated = new Socket(
+                    server.getInetAddress(),
+                    server.getLocalPort() );
+            idleAuthenticated.getOutputStream().write(
+                    (token + "\n").getBytes( StandardCharsets.UTF_8 ) );
+
+            for ( int i = 1 ; i <= 3 ; i++ )
+            {
+                try ( var client = new Socket(
+                        server.getInetAddress(),
+                        server.getLocalPort() ) )
+                {
+                    client.setSoTimeout( 5000 );
+                    client.getOutputStream().write(
+                            (token + "\ncount\nadd 1 2\nunknown\n").getBytes(
+                                    StandardCharsets.UTF_8 ) );
+                    client.shutdownOutput();
+
+                    assertEquals(
+                            // The application state is kept.
+                            Arrays.asList(
+                                    "" + i,
+                                    "3",
+                                    "Unknown command 'unknown'.",
+                                    "Line 3 failed: unknown" ),
+                            FileUtil.readLines( client.getInputStream() ) );
+                }
+            }
+
+            idle.close();
+            idleAuthenticated.close();
+
+            server.close();
+            serverThread.join( 5000 );
+        }
+    }
+
+    @Test
+    public void testBatchParallel() throws Exception
+    {
+        var commands = new StringBuilder();
+        var expectedOut = new ArrayList<String>();
+        var expectedErr = new ArrayList<String>();
+
+        for ( int i = 0 ; i < 20 ; i++ )
+        {
+            // Later lines complete first.
+            int ms = 2 * (20 - i);
+            commands.append( "sleep " ).append( ms ).append( "\n" );
+            expectedOut.add( "sleep:" + ms );
+            expectedErr.add( "" + ms );
+        }
+        commands.append( "add 1 x\n" );
+        expectedErr.add( "Command 'add' failed: Could not convert 'x' to int." );
+        expectedErr.add( "Line 21 failed: add 1 x" );
+        commands.append( "add 1 2\n" );
+        expectedOut.add( "3" );
+
+        var executor = Executors.newFixedThreadPool( 4 );
+
+        try ( var out = Redirect.out(); var err = Redirect.err() )
+        {
+            int failed = CliApplication.launchBatch(
+                    AutBatch::new,
+                    new StringReader( commands.toString() ),
+                    executor );
+
+            assertEquals( 1, failed );
+            assertEquals( expectedOut, out.content() );
+            assertEquals( expectedErr, err.content() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
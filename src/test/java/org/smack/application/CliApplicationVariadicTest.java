@@ -95,6 +95,45 @@ public class CliApplicationVariadicTest
         }
     }
 
+    static class UnderTestVariadicPrefix
+    {
+        @Command
+        public static void join( String separator, int ... rest )
+        {
+            var result = new StringBuilder( separator );
+
+            for ( var c : rest )
+                result.append( c ).append( separator );
+
+            System.out.format( "%s%n", result );
+        }
+
+        public static void main( String[] argv )
+        {
+            CliApplication.launch( UnderTestVariadicPrefix::new, argv );
+        }
+    }
+
+    @Test
+    public void testVariadicPrefix() throws IOException
+    {
+        CliApplicationTest.execCli(
+                UnderTestVariadicPrefix::main,
+                new String[] { "join", ":", "3", "1", "3" },
+                new String[] { ":3:1:3:" },
+                null );
+        CliApplicationTest.execCli(
+                UnderTestVariadicPrefix::main,
+                new String[] { "join", ":" },
+                new String[] { ":" },
+                null );
+        CliApplicationTest.execCli(
+                UnderTestVariadicPrefix::main,
+                new String[] { "join", ":", "3", "x" },
+                null,
+                new String[] { "Command 'join' failed: Could not convert 'x' to int." } );
+    }
+
     @Test
     public void testHelp() throws IOException
     {
@@ -0,0 +1,137 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.smack.util.IntegerUtil.Endianness;
+
+/**
+ * Compares the byte wise endianness loops with the view handle based
+ * conversions in {@link IntegerUtil} when decoding and encoding a
+ * 4 KiB frame.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.smack.util.EndiannessBenchmark}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndiannessBenchmark
+{
+    private static final int FRAME_SIZE = 4096;
+
+    @Param({ "Little", "Big" })
+    private String _endianness;
+
+    private Endianness _order;
+    private byte[] _frame;
+    private ByteBuffer _buffer;
+    private int[] _ints;
+    private long[] _longs;
+
+    @Setup
+    public void setup()
+    {
+        _order = "Big".equals( _endianness ) ?
+                IntegerUtil.Big :
+                IntegerUtil.Little;
+        _frame = new byte[FRAME_SIZE];
+        new Random( 313 ).nextBytes( _frame );
+        _buffer = ByteBuffer.allocateDirect( FRAME_SIZE ).put( _frame );
+        _ints = new int[FRAME_SIZE / Integer.BYTES];
+        _longs = new long[FRAME_SIZE / Long.BYTES];
+    }
+
+    @Benchmark
+    public int[] decodeIntsLoop()
+    {
+        for ( int i = 0 ; i < _ints.length ; i++ )
+            _ints[i] = (int)_order.toLong(
+                    _frame, Integer.SIZE, i * Integer.BYTES );
+        return _ints;
+    }
+
+    @Benchmark
+    public int[] decodeIntsSingle()
+    {
+        for ( int i = 0 ; i < _ints.length ; i++ )
+            _ints[i] = IntegerUtil.toInt(
+                    _order, _frame, i * Integer.BYTES );
+        return _ints;
+    }
+
+    @Benchmark
+    public int[] decodeIntsBulk()
+    {
+        IntegerUtil.toInts( _order, _frame, 0, _ints, 0, _ints.length );
+        return _ints;
+    }
+
+    @Benchmark
+    public int[] decodeIntsBuffer()
+    {
+        _buffer.clear();
+        IntegerUtil.toInts( _order, _buffer, _ints, 0, _ints.length );
+        return _ints;
+    }
+
+    @Benchmark
+    public long[] decodeLongsLoop()
+    {
+        for ( int i = 0 ; i < _longs.length ; i++ )
+            _longs[i] = _order.toLong(
+                    _frame, Long.SIZE, i * Long.BYTES );
+        return _longs;
+    }
+
+    @Benchmark
+    public long[] decodeLongsBulk()
+    {
+        IntegerUtil.toLongs( _order, _frame, 0, _longs, 0, _longs.length );
+        return _longs;
+    }
+
+    @Benchmark
+    public byte[] encodeLongsLoop()
+    {
+        for ( int i = 0 ; i < _longs.length ; i++ )
+            _order.fromLong( _longs[i], Long.SIZE, _frame, i * Long.BYTES );
+        return _frame;
+    }
+
+    @Benchmark
+    public byte[] encodeLongsBulk()
+    {
+        IntegerUtil.fromLongs( _order, _longs, 0, _longs.length, _frame, 0 );
+        return _frame;
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        new Runner( new OptionsBuilder()
+                .include( EndiannessBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -14,12 +14,22 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import org.jdesktop.util.PlatformType;
 import org.junit.Test;
@@ -362,4 +372,280 @@ public class FileUtilTest
         assertTrue( FileUtil.delete( df ) );
         assertFalse( df.exists() );
     }
+
+    /**
+     * Creates a tree with files a.txt, b.log, d1/c.txt, d1/d2/e.txt.
+     */
+    private Path createTree() throws IOException
+    {
+        var root = Files.createTempDirectory( getClass().getSimpleName() );
+        var d2 = Files.createDirectories( root.resolve( "d1/d2" ) );
+
+        Files.createFile( root.resolve( "a.txt" ) );
+        Files.createFile( root.resolve( "b.log" ) );
+        Files.createFile( root.resolve( "d1/c.txt" ) );
+        Files.createFile( d2.resolve( "e.txt" ) );
+
+        return root;
+    }
+
+    private static Set<String> names( Path root, Collection<Path> files )
+    {
+        return files.stream().map(
+                c -> root.relativize( c ).toString().replace( '\\', '/' ) ).collect(
+                        Collectors.toSet() );
+    }
+
+    @Test
+    public void testStreamFiles() throws Exception
+    {
+        var root = createTree();
+        try
+        {
+            try ( var files = FileUtil.streamFiles(
+                    root,
+                    (p,a) -> p.toString().endsWith( ".txt" ) ) )
+            {
+                assertEquals(
+                        Set.of( "a.txt", "d1/c.txt", "d1/d2/e.txt" ),
+                        names( root, files.collect( Collectors.toList() ) ) );
+            }
+            try ( var files = FileUtil.streamFiles(
+                    root,
+                    2,
+                    Long.MAX_VALUE,
+                    (p,a) -> true ) )
+            {
+                assertEquals(
+                        Set.of( "a.txt", "b.log", "d1/c.txt" ),
+                        names( root, files.collect( Collectors.toList() ) ) );
+            }
+            try ( var files = FileUtil.streamFiles(
+                    root,
+                    Integer.MAX_VALUE,
+                    2,
+                    (p,a) -> true ) )
+            {
+                assertEquals( 2, files.count() );
+            }
+        }
+        finally
+        {
+            assertTrue( FileUtil.delete( root.toFile() ) );
+        }
+    }
+
+    @Test
+    public void testFindFiles() throws Exception
+    {
+        var root = createTree();
+        try
+        {
+            assertEquals(
+                    Set.of( "a.txt", "d1/c.txt", "d1/d2/e.txt" ),
+                    names( root, FileUtil.findFiles(
+                            root,
+                            (p,a) -> p.toString().endsWith( ".txt" ) ) ) );
+            assertEquals(
+                    Set.of( "a.txt", "b.log" ),
+                    names( root, FileUtil.findFiles(
+                            root,
+                            1,
+                            Long.MAX_VALUE,
+                            (p,a) -> true ) ) );
+            assertEquals(
+                    0,
+                    FileUtil.findFiles(
+                            root,
+                            0,
+                            Long.MAX_VALUE,
+                            (p,a) -> true ).size() );
+            assertEquals(
+                    3,
+                    FileUtil.findFiles(
+                            root,
+                            Integer.MAX_VALUE,
+                            3,
+                            (p,a) -> true ).size() );
+
+            var file = root.resolve( "a.txt" );
+            assertEquals(
+                    List.of( file ),
+                    FileUtil.findFiles( file, (p,a) -> true ) );
+        }
+        finally
+        {
+            assertTrue( FileUtil.delete( root.toFile() ) );
+        }
+    }
+
+    @Test
+    public void testFindFilesConcurrentDelete() throws Exception
+    {
+        var root = Files.createTempDirectory( getClass().getSimpleName() );
+        try
+        {
+            for ( int i = 0 ; i < 100 ; i++ )
+                Files.createFile( root.resolve( "f" + i ) );
+            for ( int i = 0 ; i < 10 ; i++ )
+                Files.createFile( Files.createDirectory(
+                        root.resolve( "d" + i ) ).resolve( "x" ) );
+
+            var deleted = new AtomicBoolean();
+
+            // The first tested file deletes all other entries.
+            var found = FileUtil.findFiles( root, (p,a) -> {
+                if ( deleted.compareAndSet( false, true ) )
+                {
+                    try ( var entries = Files.list( root ) )
+                    {
+                        entries
+                            .filter( c -> ! c.equals( p ) )
+                            .forEach( FileUtil::deleteTree );
+                    }
+                    catch ( IOException e )
+                    {
+                        throw new UncheckedIOException( e );
+                    }
+                }
+                return true;
+            } );
+
+            assertEquals( 1, found.size() );
+        }
+        finally
+        {
+            FileUtil.deleteTree( root );
+        }
+    }
+
+    private static List<String> mappedLines( Path file, Charset cs, boolean parallel )
+        throws IOException
+    {
+        try ( var lines = FileUtil.lines( file, cs ) )
+        {
+            var stream = parallel ? lines.parallel() : lines;
+            return stream.map( CharSequence::toString ).collect(
+                    Collectors.toList() );
+        }
+    }
+
+    @Test
+    public void testMappedLines() throws Exception
+    {
+        var file = Files.createTempFile( getClass().getSimpleName(), ".txt" );
+        try
+        {
+            Files.write(
+                    file,
+                    "Gänsewein\r\n\nzwei\ndrei".getBytes( StandardCharsets.UTF_8 ) );
+            assertEquals(
+                    List.of( "Gänsewein", "", "zwei", "drei" ),
+                    mappedLines( file, StandardCharsets.UTF_8, false ) );
+
+            Files.write(
+                    file,
+                    "Gänsewein\nzwei\n".getBytes( StandardCharsets.ISO_8859_1 ) );
+            assertEquals(
+                    List.of( "Gänsewein", "zwei" ),
+                    mappedLines( file, StandardCharsets.ISO_8859_1, false ) );
+
+            try ( var lines = FileUtil.lines( file, StandardCharsets.ISO_8859_1 ) )
+            {
+                var first = lines.findFirst().get();
+                assertEquals( 'ä', first.charAt( 1 ) );
+                assertEquals( "sew", first.subSequence( 3, 6 ).toString() );
+            }
+
+            Files.write( file, new byte[0] );
+            assertEquals(
+                    List.of(),
+                    mappedLines( file, StandardCharsets.UTF_8, false ) );
+        }
+        finally
+        {
+            Files.delete( file );
+        }
+    }
+
+    @Test
+    public void testMappedLinesParallel() throws Exception
+    {
+        var file = Files.createTempFile( getClass().getSimpleName(), ".txt" );
+        try
+        {
+            var expected = new ArrayList<String>();
+            for ( int i = 0 ; i < 100_000 ; i++ )
+                expected.add( "Zeile ä " + i );
+            Files.write( file, expected, StandardCharsets.UTF_8 );
+
+            assertEquals(
+                    expected,
+                    mappedLines( file, StandardCharsets.UTF_8, false ) );
+            assertEquals(
+                    expected,
+                    mappedLines( file, StandardCharsets.UTF_8, true ) );
+            assertEquals(
+                    FileUtil.readLines( file.toFile(), StandardCharsets.UTF_8 ),
+                    expected );
+        }
+        finally
+        {
+            Files.delete( file );
+        }
+    }
+
+    @Test
+    public void testDeleteTree() throws Exception
+    {
+        for ( int parallelism : new int[] { 1, 4 } )
+        {
+            var root = createTree();
+            Files.write( root.resolve( "a.txt" ), new byte[100] );
+            Files.write( root.resolve( "d1/d2/e.txt" ), new byte[20] );
+
+            var outside = Files.createTempFile( getClass().getSimpleName(), ".tmp" );
+            try
+            {
+                Files.createSymbolicLink( root.resolve( "d1/link" ), outside );
+            }
+            catch ( UnsupportedOperationException | IOException e )
+            {
+                // Symbolic links not supported.
+                Files.createFile( root.resolve( "d1/link" ) );
+            }
+
+            var result = FileUtil.deleteTree( root, parallelism );
+
+            assertTrue( result.isSuccess() );
+            assertTrue( result.getFailed().isEmpty() );
+            assertEquals( 5, result.getFileCount() );
+            assertEquals( 3, result.getDirectoryCount() );
+            assertEquals( 120, result.getBytesFreed() );
+            assertFalse( Files.exists( root ) );
+
+            // The link target is not deleted.
+            assertTrue( Files.exists( outside ) );
+            Files.delete( outside );
+
+            result = FileUtil.deleteTree( root, parallelism );
+            assertTrue( result.isSuccess() );
+            assertEquals( 0, result.getFileCount() );
+        }
+    }
+
+    @Test
+    public void testDeleteTreeFile() throws Exception
+    {
+        var file = Files.createTempFile( getClass().getSimpleName(), ".tmp" );
+        Files.write( file, new byte[10] );
+
+        var result = FileUtil.deleteTree( file );
+
+        assertTrue( result.isSuccess() );
+        assertEquals( 1, result.getFileCount() );
+        assertEquals( 0, result.getDirectoryCount() );
+        assertEquals( 10, result.getBytesFreed() );
+        assertFalse( Files.exists( file ) );
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the table driven hex codecs against the formatting and
+ * parsing implementation they replace.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.smack.util.HexBenchmark}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HexBenchmark
+{
+    /**
+     * A digest and a payload size.
+     */
+    @Param({ "32", "4096" })
+    private int _size;
+
+    private byte[] _bytes;
+    private String _hex;
+
+    @Setup
+    public void setup()
+    {
+        _bytes = new byte[_size];
+        new Random( 313 ).nextBytes( _bytes );
+        _hex = StringUtil.toHex( _bytes );
+    }
+
+    @Benchmark
+    public String encodeTable()
+    {
+        return StringUtil.toHex( _bytes );
+    }
+
+    @Benchmark
+    public String encodeFormat()
+    {
+        var result =
+                new StringBuilder( _bytes.length * 2 );
+
+        for ( Byte c : _bytes )
+            result.append( String.format( "%02x", c ) );
+
+        return result.toString();
+    }
+
+    @Benchmark
+    public byte[] decodeTable()
+    {
+        return StringUtil.fromHex( _hex );
+    }
+
+    @Benchmark
+    public byte[] decodeParse()
+    {
+        var result = new byte[ _hex.length() / 2 ];
+
+        for ( int i = 0 ; i < result.length ; i++ )
+            result[i] = (byte)
+                    Short.parseShort( _hex.substring( 2 * i, 2 * i + 2 ), 16 );
+
+        return result;
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        new Runner( new OptionsBuilder()
+                .include( HexBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+import org.smack.util.IntegerUtil.Endianness;
+
+public class IntegerUtilTest
+{
+    @Test
+    public void testToHexString()
+    {
+        assertEquals(
+                "0x00 0xff 0x10",
+                IntegerUtil.toHexString( new byte[] { 0, -1, 16 } ) );
+        assertEquals(
+                "0x7f",
+                IntegerUtil.toHexString( new byte[] { 127 } ) );
+        assertEquals(
+                "",
+                IntegerUtil.toHexString( new byte[0] ) );
+    }
+
+    @Test
+    public void testParse() throws Exception
+    {
+        assertArrayEquals(
+                new byte[] { 0, -1, 16 },
+                IntegerUtil.parse( "0x00FF10" ) );
+        assertArrayEquals(
+                new byte[] { (byte)0xab, 0, 0 },
+                IntegerUtil.parse( 3, "ab" ) );
+
+        try
+        {
+            IntegerUtil.parse( "0x0" );
+            fail();
+        }
+        catch ( NumberFormatException expected )
+        {
+        }
+        try
+        {
+            IntegerUtil.parse( "zz" );
+            fail();
+        }
+        catch ( NumberFormatException expected )
+        {
+        }
+    }
+
+    @Test
+    public void testFastPaths()
+    {
+        var bytes = new byte[11];
+        new Random( 313 ).nextBytes( bytes );
+
+        for ( var e : new Endianness[] { IntegerUtil.Little, IntegerUtil.Big } )
+        {
+            for ( int i = 0 ; i < bytes.length ; i++ )
+            {
+                for ( int bits : new int[] { 16, 32, 64 } )
+                {
+                    if ( i + bits / 8 <= bytes.length )
+                        assertEquals(
+                                e + ":" + i + ":" + bits,
+                                e.toLong( bytes, bits, i ),
+                                IntegerUtil.toInteger( e, bits, bytes, i ) );
+
+                    var expected = new byte[bytes.length];
+                    var actual = new byte[bytes.length];
+                    long value = e.toLong( bytes, bits, i );
+                    if ( i + bits / 8 > bytes.length )
+                        continue;
+                    e.fromLong( value, bits, expected, i );
+                    IntegerUtil.fromLong( e, value, bits, actual, i );
+                    assertArrayEquals( expected, actual );
+                }
+
+                // Short buffers are zero filled.
+                assertEquals(
+                        e.toLong( bytes, 64, i ),
+                        IntegerUtil.toLong( e, bytes, i ) );
+                assertEquals(
+                        (int)e.toLong( bytes, 32, i ),
+                        IntegerUtil.toInt( e, bytes, i ) );
+                assertEquals(
+                        (short)e.toLong( bytes, 16, i ),
+                        IntegerUtil.toShort( e, bytes, i ) );
+            }
+        }
+
+        assertArrayEquals(
+                new byte[] { 0x12, 0x34 },
+                IntegerUtil.fromShort( IntegerUtil.Big, (short)0x1234 ) );
+        assertArrayEquals(
+                new byte[] { 0x78, 0x56, 0x34, 0x12 },
+                IntegerUtil.fromInt( IntegerUtil.Little, 0x12345678 ) );
+        assertEquals(
+                0xfedcL,
+                IntegerUtil.toInteger( IntegerUtil.Big, 16, new byte[] { (byte)0xfe, (byte)0xdc }, 0 ) );
+    }
+
+    @Test
+    public void testBulk()
+    {
+        var random = new Random( 313 );
+        var ints = random.ints( 5 ).toArray();
+        var longs = random.longs( 5 ).toArray();
+
+        for ( var e : new Endianness[] { IntegerUtil.Little, IntegerUtil.Big } )
+        {
+            var bytes = new byte[1 + 5 * Long.BYTES];
+
+            IntegerUtil.fromInts( e, ints, 1, 4, bytes, 1 );
+            for ( int i = 0 ; i < 4 ; i++ )
+                assertEquals( ints[1 + i], IntegerUtil.toInt( e, bytes, 1 + 4 * i ) );
+
+            var intResult = new int[5];
+            IntegerUtil.toInts( e, bytes, 1, intResult, 1, 4 );
+            assertEquals( 0, intResult[0] );
+            for ( int i = 1 ; i < 5 ; i++ )
+                assertEquals( ints[i], intResult[i] );
+
+            IntegerUtil.fromLongs( e, longs, 0, 5, bytes, 1 );
+            var longResult = new long[5];
+            IntegerUtil.toLongs( e, bytes, 1, longResult, 0, 5 );
+            assertArrayEquals( longs, longResult );
+            assertEquals( longs[2], IntegerUtil.toLong( e, bytes, 1 + 16 ) );
+
+            var buffer = ByteBuffer.allocateDirect( 2 + 5 * Long.BYTES );
+            buffer.position( 2 );
+            IntegerUtil.fromLongs( e, longs, 0, 5, buffer );
+            assertEquals( buffer.capacity(), buffer.position() );
+            buffer.position( 2 );
+            longResult = new long[5];
+            IntegerUtil.toLongs( e, buffer, longResult, 0, 5 );
+            assertArrayEquals( longs, longResult );
+
+            buffer.clear();
+            IntegerUtil.fromInts( e, ints, 0, 5, buffer );
+            assertEquals( 20, buffer.position() );
+            buffer.flip();
+            intResult = new int[5];
+            IntegerUtil.toInts( e, buffer, intResult, 0, 5 );
+            assertArrayEquals( ints, intResult );
+            assertEquals( ints[3], IntegerUtil.toInt( e, bytes( buffer ), 12 ) );
+
+            try
+            {
+                IntegerUtil.toInts( e, new byte[7], 0, new int[2], 0, 2 );
+                fail();
+            }
+            catch ( IndexOutOfBoundsException expected )
+            {
+            }
+        }
+    }
+
+    @Test
+    public void testBitLayoutBig()
+    {
+        // IPv4 version, header length, DSCP, ECN and length.
+        var layout = new IntegerUtil.BitLayout.Builder( IntegerUtil.Big )
+                .unsigned( 4 )
+                .unsigned( 4 )
+                .unsigned( 6 )
+                .unsigned( 2 )
+                .unsigned( 16 )
+                .build();
+
+        assertEquals( 5, layout.getFieldCount() );
+        assertEquals( 4, layout.getByteCount() );
+
+        var record = new byte[] { 0x45, (byte)0xb9, 0x05, (byte)0xdc };
+        var fields = new long[5];
+        layout.decode( record, 0, fields, 0 );
+        assertArrayEquals( new long[] { 4, 5, 46, 1, 1500 }, fields );
+
+        var encoded = new byte[4];
+        layout.encode( fields, 0, encoded, 0 );
+        assertArrayEquals( record, encoded );
+    }
+
+    @Test
+    public void testBitLayoutLittle()
+    {
+        var layout = new IntegerUtil.BitLayout.Builder( IntegerUtil.Little )
+                .signed( 3 )
+                .skip( 1 )
+                .unsigned( 12 )
+                .field( 20, 4, true )
+                .build();
+
+        assertEquals( 3, layout.getByteCount() );
+
+        var fields = new long[] { -3, 0xabc, 7 };
+        var encoded = new byte[3];
+        layout.encode( fields, 0, encoded, 0 );
+        assertArrayEquals( new byte[] { (byte)0xc5, (byte)0xab, 0x70 }, encoded );
+
+        var decoded = new long[3];
+        layout.decode( encoded, 0, decoded, 0 );
+        assertArrayEquals( fields, decoded );
+
+        // Truncated to the field width and sign extended.
+        layout.encode( new long[] { 5, 0x1abc, 8 }, 0, encoded, 0 );
+        layout.decode( encoded, 0, decoded, 0 );
+        assertArrayEquals( new long[] { -3, 0xabc, -8 }, decoded );
+
+        for ( int[] bad : new int[][] { { 0, 0 }, { 0, 65 }, { -1, 1 }, { 2, 4 } } )
+        {
+            try
+            {
+                new IntegerUtil.BitLayout.Builder( IntegerUtil.Little )
+                    .unsigned( 4 )
+                    .field( bad[0], bad[1], false );
+                fail();
+            }
+            catch ( IllegalArgumentException expected )
+            {
+            }
+        }
+    }
+
+    @Test
+    public void testBitLayoutRandom()
+    {
+        var random = new Random( 313 );
+
+        for ( var e : new Endianness[] { IntegerUtil.Little, IntegerUtil.Big } )
+        {
+            for ( int n = 0 ; n < 50 ; n++ )
+            {
+                var builder = new IntegerUtil.BitLayout.Builder( e );
+                int fieldCount = 1 + random.nextInt( 6 );
+                for ( int i = 0 ; i < fieldCount ; i++ )
+                {
+                    builder.skip( random.nextInt( 8 ) );
+                    builder.field( 1 + random.nextInt( 64 ), random.nextBoolean() );
+                }
+                var layout = builder.build();
+
+                int records = 3;
+                var bytes = new byte[1 + records * layout.getByteCount()];
+                random.nextBytes( bytes );
+
+                var fields = new long[records * fieldCount];
+                layout.decode( bytes, 1, records, fields, 0 );
+
+                for ( int r = 0 ; r < records ; r++ )
+                    for ( int i = 0 ; i < fieldCount ; i++ )
+                        assertEquals(
+                                layout + " " + r + ":" + i,
+                                decodeBits( layout, bytes, 1 + r * layout.getByteCount(), i ),
+                                fields[r * fieldCount + i] );
+
+                var encoded = new byte[bytes.length];
+                layout.encode( fields, 0, records, encoded, 1 );
+                var decoded = new long[fields.length];
+                layout.decode( encoded, 1, records, decoded, 0 );
+                assertArrayEquals( layout.toString(), fields, decoded );
+            }
+        }
+    }
+
+    /**
+     * Reference implementation decoding a field bit by bit.
+     */
+    private static long decodeBits( IntegerUtil.BitLayout layout, byte[] bytes, int base, int field )
+    {
+        long result = 0;
+        int width = layout.getWidth( field );
+
+        for ( int i = 0 ; i < width ; i++ )
+        {
+            int bit = layout.getOffset( field ) + i;
+            int b = bytes[base + bit / 8] & 0xff;
+            if ( layout.getEndianness() == IntegerUtil.Big )
+                result = (result << 1) | ((b >>> (7 - bit % 8)) & 1);
+            else
+                result |= (long)((b >>> (bit % 8)) & 1) << i;
+        }
+
+        if ( layout.isSigned( field ) && width < 64 )
+            result = (result << (64 - width)) >> (64 - width);
+
+        return result;
+    }
+
+    private static byte[] bytes( ByteBuffer buffer )
+    {
+        var result = new byte[buffer.limit()];
+        buffer.duplicate().position( 0 ).get( result );
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the per value {@link MathUtil} operations with their batch
+ * variants.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.smack.util.MathBenchmark}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathBenchmark
+{
+    private static final int SAMPLES = 65536;
+
+    /**
+     * The polynomial degree.
+     */
+    @Param({ "3", "7" })
+    private int _degree;
+
+    private double[] _c;
+    private double[] _xs;
+    private double[] _ys;
+    private double[] _bx;
+    private double[] _by;
+    private double[] _out;
+
+    @Setup
+    public void setup()
+    {
+        var random = new Random( 313 );
+
+        _c = random.doubles( _degree + 1, -1, 1 ).toArray();
+        _xs = random.doubles( SAMPLES, -1, 1 ).toArray();
+        _ys = random.doubles( SAMPLES, -1, 1 ).toArray();
+        _bx = random.doubles( SAMPLES, -1, 1 ).toArray();
+        _by = random.doubles( SAMPLES, -1, 1 ).toArray();
+        _out = new double[SAMPLES];
+    }
+
+    @Benchmark
+    public double[] polynomialSingle()
+    {
+        for ( int i = 0 ; i < SAMPLES ; i++ )
+            _out[i] = MathUtil.computePolynomial( _xs[i], _c );
+        return _out;
+    }
+
+    @Benchmark
+    public double[] polynomialBatch()
+    {
+        MathUtil.computePolynomial( _xs, _c, _out );
+        return _out;
+    }
+
+    @Benchmark
+    public double[] distanceSingle()
+    {
+        for ( int i = 0 ; i < SAMPLES ; i++ )
+            _out[i] = MathUtil.distance( _xs[i], _ys[i], _bx[i], _by[i] );
+        return _out;
+    }
+
+    @Benchmark
+    public double[] distanceBatch()
+    {
+        MathUtil.distance( _xs, _ys, _bx, _by, _out, SAMPLES );
+        return _out;
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        new Runner( new OptionsBuilder()
+                .include( MathBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -1,10 +1,13 @@
 package org.smack.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 public class MathUtilTest
@@ -50,6 +53,90 @@ public class MathUtilTest
         }
     }
 
+    @Test
+    public void testComputePolynomialBatch()
+    {
+        var random = new Random( 313 );
+        double[] c = random.doubles( 6, -2, 2 ).toArray();
+        double[] xs = random.doubles( 2500, -10, 10 ).toArray();
+
+        double[] expected = new double[xs.length];
+        for ( int i = 0 ; i < xs.length ; i++ )
+            expected[i] = MathUtil.computePolynomial( xs[i], c );
+
+        double[] out = new double[xs.length];
+        MathUtil.computePolynomial( xs, c, out );
+        assertArrayEquals( expected, out, 0 );
+
+        // In place.
+        MathUtil.computePolynomial( xs, c, xs );
+        assertArrayEquals( expected, xs, 0 );
+
+        // Overlapping ranges at different offsets.
+        for ( int offset : new int[] { 512, -512, 1 } )
+        {
+            double[] a = new double[4096];
+            for ( int i = 0 ; i < a.length ; i++ )
+                a[i] = i;
+            int from = Math.max( 0, -offset );
+            MathUtil.computePolynomial( a, from, new double[] { 2, 1 }, a, from + offset, 2048 );
+            for ( int i = 0 ; i < 2048 ; i++ )
+                assertEquals( 2.0 * (from + i) + 1, a[from + offset + i], 0 );
+        }
+
+        out = new double[4];
+        MathUtil.computePolynomial( new double[] { 0, 1, 2 }, 1, new double[] { 2, 3, 4 }, out, 2, 2 );
+        assertArrayEquals( new double[] { 0, 0, 9, 18 }, out, 0 );
+
+        try
+        {
+            MathUtil.computePolynomial( new double[1], new double[0], new double[1] );
+            fail( "No good." );
+        }
+        catch ( IllegalArgumentException ignore )
+        {
+        }
+    }
+
+    @Test
+    public void testDistanceBatch()
+    {
+        var random = new Random( 313 );
+        int count = 100;
+        double[] ax = random.doubles( count, -100, 100 ).toArray();
+        double[] ay = random.doubles( count, -100, 100 ).toArray();
+        double[] bx = random.doubles( count, -100, 100 ).toArray();
+        double[] by = random.doubles( count, -100, 100 ).toArray();
+        double[] out = new double[count];
+
+        MathUtil.distance( ax, ay, bx, by, out, count );
+        for ( int i = 0 ; i < count ; i++ )
+            assertEquals( MathUtil.distance( ax[i], ay[i], bx[i], by[i] ), out[i], 1e-12 );
+
+        MathUtil.distance( 1, 2, bx, by, out, count );
+        for ( int i = 0 ; i < count ; i++ )
+            assertEquals( MathUtil.distance( 1, 2, bx[i], by[i] ), out[i], 1e-12 );
+
+        int[] iax = random.ints( count, -1000, 1000 ).toArray();
+        int[] iay = random.ints( count, -1000, 1000 ).toArray();
+        int[] ibx = random.ints( count, -1000, 1000 ).toArray();
+        int[] iby = random.ints( count, -1000, 1000 ).toArray();
+        int[] iout = new int[count];
+
+        MathUtil.distanceInt( iax, iay, ibx, iby, iout, count );
+        for ( int i = 0 ; i < count ; i++ )
+            assertEquals( MathUtil.distanceInt( iax[i], iay[i], ibx[i], iby[i] ), iout[i] );
+
+        try
+        {
+            MathUtil.distance( ax, ay, bx, by, new double[1], 2 );
+            fail( "No good." );
+        }
+        catch ( IndexOutOfBoundsException ignore )
+        {
+        }
+    }
+
     @Test
     public void testDistance()
     {
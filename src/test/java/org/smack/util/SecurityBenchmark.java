@@ -0,0 +1,97 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the per thread verify and decrypt engines in
+ * {@link SecurityUtil} with creating and initializing a {@link Signature}
+ * or {@link Cipher} per call.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.smack.util.SecurityBenchmark}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityBenchmark
+{
+    private KeyPair _keys;
+    private byte[] _data;
+    private byte[] _signature;
+    private byte[] _encrypted;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        var generator = KeyPairGenerator.getInstance(
+                SecurityUtil.SIGN_ALGORITHM );
+        generator.initialize( 2048 );
+        _keys = generator.generateKeyPair();
+        _data = new byte[256];
+        _signature = SecurityUtil.sign( _keys.getPrivate(), _data );
+        _encrypted = SecurityUtil.encrypt( _keys.getPrivate(), new byte[64] );
+    }
+
+    @Benchmark
+    public boolean verifyPerCall() throws Exception
+    {
+        var signature = Signature.getInstance( "SHA1withRSA", "SunRsaSign" );
+        signature.initVerify( _keys.getPublic() );
+        signature.update( _data );
+        return signature.verify( _signature );
+    }
+
+    @Benchmark
+    public boolean verifyCached()
+    {
+        return SecurityUtil.verifySignature(
+                _keys.getPublic(), _data, _signature );
+    }
+
+    @Benchmark
+    public byte[] decryptPerCall() throws Exception
+    {
+        var cipher = Cipher.getInstance( SecurityUtil.CIPHER_ALGORITHM );
+        cipher.init( Cipher.DECRYPT_MODE, _keys.getPublic() );
+        return cipher.doFinal( _encrypted );
+    }
+
+    @Benchmark
+    public byte[] decryptCached() throws Exception
+    {
+        return SecurityUtil.decrypt( _keys.getPublic(), _encrypted );
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        new Runner( new OptionsBuilder()
+                .include( SecurityBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
@@ -1,5 +1,6 @@
 package org.smack.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -17,6 +18,9 @@ import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 import org.smack.util.SecurityUtil.DecryptionFailed;
@@ -349,4 +353,74 @@ public class SecurityUtilTest
 
         assertFalse( success );
     }
+
+    @Test
+    public void engineReuseTest() throws Exception
+    {
+        KeyStore ks = getKeystore();
+
+        PrivateKey priv1 = (PrivateKey)ks.getKey(
+                ALIAS_1,
+                PASSWORD.toCharArray() );
+        PrivateKey priv2 = (PrivateKey)ks.getKey(
+                ALIAS_2,
+                PASSWORD.toCharArray() );
+        PublicKey pub1 = ks.getCertificate( ALIAS_1 ).getPublicKey();
+        PublicKey pub2 = ks.getCertificate( ALIAS_2 ).getPublicKey();
+
+        byte[] data = "Reused engines".getBytes( "UTF-8" );
+
+        byte[] signature1 = SecurityUtil.sign( priv1, data );
+        byte[] signature2 = SecurityUtil.sign( priv2, data );
+        assertArrayEquals( signature1, SecurityUtil.sign( priv1, data ) );
+
+        assertTrue( SecurityUtil.verifySignature( pub1, data, signature1 ) );
+        assertFalse( SecurityUtil.verifySignature( pub1, data, signature2 ) );
+        assertFalse( SecurityUtil.verifySignature( pub1, data, new byte[3] ) );
+        assertTrue( SecurityUtil.verifySignature( pub1, data, signature1 ) );
+        assertTrue( SecurityUtil.verifySignature( pub2, data, signature2 ) );
+
+        byte[] encrypted = SecurityUtil.encrypt( priv1, data );
+        try
+        {
+            SecurityUtil.decrypt( pub2, encrypted );
+            fail();
+        }
+        catch ( DecryptionFailed expected )
+        {
+        }
+        assertArrayEquals( data, SecurityUtil.decrypt( pub1, encrypted ) );
+        assertArrayEquals( data, SecurityUtil.decrypt( pub1, encrypted ) );
+
+        SecurityUtil.releaseEngines();
+        assertTrue( SecurityUtil.verifySignature( pub1, data, signature1 ) );
+
+        // Concurrent use.
+        var executor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            var tasks = new ArrayList<Callable<Boolean>>();
+            for ( int i = 0 ; i < 8 ; i++ )
+            {
+                boolean one = (i & 1) == 0;
+                tasks.add( () -> {
+                    for ( int j = 0 ; j < 10 ; j++ )
+                    {
+                        byte[] s = SecurityUtil.sign( one ? priv1 : priv2, data );
+                        if ( ! SecurityUtil.verifySignature( one ? pub1 : pub2, data, s ) )
+                            return false;
+                        if ( SecurityUtil.verifySignature( one ? pub2 : pub1, data, s ) )
+                            return false;
+                    }
+                    return true;
+                } );
+            }
+            for ( var f : executor.invokeAll( tasks ) )
+                assertTrue( f.get() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.smack.util.converters.StringConverter;
+
+/**
+ * Contention benchmark for {@link ServiceManager#getApplicationService(Class)}.
+ * The synchronized variant reproduces the former implementation.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.smack.util.ServiceManagerBenchmark [threads]}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ServiceManagerBenchmark
+{
+    private static final Map<Class<?>, Object> _synchronizedSingletons =
+            new HashMap<>();
+
+    private static synchronized <T> T getSynchronized( Class<T> singletonType )
+    {
+        return singletonType.cast( _synchronizedSingletons.computeIfAbsent(
+                singletonType,
+                ServiceManager::getApplicationService ) );
+    }
+
+    @Setup
+    public void setup()
+    {
+        ServiceManager.getApplicationService( StringConverter.class );
+        getSynchronized( StringConverter.class );
+    }
+
+    @Benchmark
+    public StringConverter concurrent()
+    {
+        return ServiceManager.getApplicationService( StringConverter.class );
+    }
+
+    @Benchmark
+    public StringConverter synchronizedMap()
+    {
+        return getSynchronized( StringConverter.class );
+    }
+
+    public static void main( String[] argv ) throws Exception
+    {
+        var options = new OptionsBuilder()
+                .include( ServiceManagerBenchmark.class.getSimpleName() );
+
+        if ( argv.length > 0 )
+            options.threads( Integer.parseInt( argv[0] ) );
+
+        new Runner( options.build() ).run();
+    }
+}
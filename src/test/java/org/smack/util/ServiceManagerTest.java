@@ -0,0 +1,152 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ServiceManagerTest
+{
+    public static class CountedService
+    {
+        static final AtomicInteger _count = new AtomicInteger();
+
+        public CountedService() throws InterruptedException
+        {
+            _count.incrementAndGet();
+            // Widen the window for concurrent creation.
+            Thread.sleep( 50 );
+        }
+    }
+
+    public static class InitService
+    {
+    }
+
+    /**
+     * Both constructors started, or the wait timed out.
+     */
+    static final CountDownLatch _cycleStarted = new CountDownLatch( 2 );
+
+    /**
+     * Requests {@link CycleB} if created by the thread named 'a'.
+     */
+    public static class CycleA
+    {
+        public CycleA() throws InterruptedException
+        {
+            if ( Thread.currentThread().getName().equals( "a" ) )
+            {
+                _cycleStarted.countDown();
+                _cycleStarted.await( 500, TimeUnit.MILLISECONDS );
+                ServiceManager.getApplicationService( CycleB.class );
+            }
+        }
+    }
+
+    /**
+     * Requests {@link CycleA} if created by the thread named 'b'.
+     */
+    public static class CycleB
+    {
+        public CycleB() throws InterruptedException
+        {
+            if ( Thread.currentThread().getName().equals( "b" ) )
+            {
+                _cycleStarted.countDown();
+                _cycleStarted.await( 500, TimeUnit.MILLISECONDS );
+                ServiceManager.getApplicationService( CycleA.class );
+            }
+        }
+    }
+
+    @Test
+    public void createOnceConcurrently() throws Exception
+    {
+        final int threads = 8;
+        var start = new CountDownLatch( 1 );
+        var executor = Executors.newFixedThreadPool( threads );
+
+        try
+        {
+            var futures = new ArrayList<Future<CountedService>>();
+
+            Callable<CountedService> c = () -> {
+                start.await();
+                return ServiceManager.getApplicationService(
+                        CountedService.class );
+            };
+
+            for ( int i = 0 ; i < threads ; i++ )
+                futures.add( executor.submit( c ) );
+
+            start.countDown();
+
+            var first = futures.get( 0 ).get();
+            for ( var f : futures )
+                assertSame( first, f.get() );
+            assertEquals( 1, CountedService._count.get() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void createCrossingDependencies() throws Exception
+    {
+        var a = new Thread(
+                () -> ServiceManager.getApplicationService( CycleA.class ),
+                "a" );
+        var b = new Thread(
+                () -> ServiceManager.getApplicationService( CycleB.class ),
+                "b" );
+        a.setDaemon( true );
+        b.setDaemon( true );
+
+        a.start();
+        b.start();
+        a.join( 5000 );
+        b.join( 5000 );
+
+        assertFalse( "Deadlock.", a.isAlive() || b.isAlive() );
+    }
+
+    @Test
+    public void initTwice()
+    {
+        var service = new InitService();
+
+        assertSame(
+                service,
+                ServiceManager.initApplicationService( service ) );
+        assertSame(
+                service,
+                ServiceManager.getApplicationService( InitService.class ) );
+
+        try
+        {
+            ServiceManager.initApplicationService( new InitService() );
+            fail();
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+    }
+}
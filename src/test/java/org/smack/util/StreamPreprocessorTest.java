@@ -0,0 +1,239 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.smack.util.StreamPreprocessor.Resolver;
+
+public class StreamPreprocessorTest
+{
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * Resolves names in a map of directories to files.  Names are
+     * relative to the resolver's directory.
+     */
+    private static class MapResolver implements Resolver
+    {
+        private final Map<String, String> _files;
+        private final String _directory;
+        private final boolean _cacheable;
+        private final Map<String, Integer> _resolved;
+
+        MapResolver(
+                Map<String, String> files,
+                String directory,
+                boolean cacheable,
+                Map<String, Integer> resolved )
+        {
+            _files = files;
+            _directory = directory;
+            _cacheable = cacheable;
+            _resolved = resolved;
+        }
+
+        private String path( String name )
+        {
+            return name.startsWith( "/" ) ? name : _directory + name;
+        }
+
+        @Override
+        public InputStream resolveName( String name ) throws IOException
+        {
+            var path = path( name );
+            var content = _files.get( path );
+            if ( content == null )
+                throw new IOException( "Not found: " + path );
+            _resolved.merge( path, 1, Integer::sum );
+            return new ByteArrayInputStream(
+                    content.getBytes( StandardCharsets.UTF_8 ) );
+        }
+
+        @Override
+        public Resolver reposition( String name )
+        {
+            var path = path( name );
+            return new MapResolver(
+                    _files,
+                    path.substring( 0, path.lastIndexOf( '/' ) + 1 ),
+                    _cacheable,
+                    _resolved );
+        }
+
+        @Override
+        public String canonicalName( String name )
+        {
+            return _cacheable ? path( name ) : null;
+        }
+    }
+
+    private final Map<String, String> _files = Map.of(
+            "/inc/a.h", "a1\n#include \"sub/b.h\"\na2",
+            "/inc/sub/b.h", "bä",
+            "/inc/c.h", "#include /inc/sub/b.h\n#include a.h" );
+
+    private static final String MAIN = String.join( "\n",
+            "first",
+            "#include inc/a.h",
+            "  #include \"inc/c.h\"",
+            "last" );
+
+    private static final String EXPECTED = String.join( NL,
+            "first",
+            "a1",
+            "bä",
+            "a2",
+            "bä",
+            "a1",
+            "bä",
+            "a2",
+            "last" ) + NL;
+
+    private StreamPreprocessor create(
+            boolean cacheable,
+            Map<String, Integer> resolved )
+    {
+        return new StreamPreprocessor(
+                new ByteArrayInputStream(
+                        MAIN.getBytes( StandardCharsets.UTF_8 ) ),
+                new MapResolver( _files, "/", cacheable, resolved ),
+                StandardCharsets.UTF_8 );
+    }
+
+    private static String readBulk( InputStream in, int chunk )
+        throws IOException
+    {
+        var result = new ByteArrayOutputStream();
+        var buffer = new byte[chunk];
+
+        for ( int n = in.read( buffer ) ; n != -1 ; n = in.read( buffer ) )
+            result.write( buffer, 0, n );
+
+        return result.toString( StandardCharsets.UTF_8 );
+    }
+
+    private static String readSingle( InputStream in ) throws IOException
+    {
+        var result = new ByteArrayOutputStream();
+
+        for ( int c = in.read() ; c != -1 ; c = in.read() )
+            result.write( c );
+
+        return result.toString( StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    public void testInclude() throws IOException
+    {
+        for ( var cacheable : new boolean[] { true, false } )
+        {
+            try ( var in = create( cacheable, new HashMap<>() ) )
+            {
+                assertEquals( EXPECTED, readSingle( in ) );
+            }
+            for ( int chunk : new int[] { 1, 3, 1024 } )
+                try ( var in = create( cacheable, new HashMap<>() ) )
+                {
+                    assertEquals( EXPECTED, readBulk( in, chunk ) );
+                }
+        }
+    }
+
+    @Test
+    public void testIncludeCache() throws IOException
+    {
+        var resolved = new HashMap<String, Integer>();
+
+        try ( var in = create( true, resolved ) )
+        {
+            assertEquals( EXPECTED, readBulk( in, 100 ) );
+        }
+
+        assertEquals( 1, (int)resolved.get( "/inc/a.h" ) );
+        assertEquals( 1, (int)resolved.get( "/inc/sub/b.h" ) );
+
+        resolved.clear();
+
+        try ( var in = create( false, resolved ) )
+        {
+            assertEquals( EXPECTED, readBulk( in, 100 ) );
+        }
+
+        assertEquals( 2, (int)resolved.get( "/inc/a.h" ) );
+        assertEquals( 3, (int)resolved.get( "/inc/sub/b.h" ) );
+    }
+
+    @Test
+    public void testReader() throws IOException
+    {
+        for ( var cacheable : new boolean[] { true, false } )
+        {
+            var out = new StringWriter();
+
+            try ( var in = StreamPreprocessor.reader(
+                    new StringReader( MAIN ),
+                    new MapResolver( _files, "/", cacheable, new HashMap<>() ),
+                    StandardCharsets.UTF_8 ) )
+            {
+                in.transferTo( out );
+            }
+
+            assertEquals( EXPECTED, out.toString() );
+        }
+    }
+
+    @Test
+    public void testLines()
+    {
+        for ( var cacheable : new boolean[] { true, false } )
+        {
+            List<String> lines;
+
+            try ( var stream = StreamPreprocessor.lines(
+                    new StringReader( MAIN ),
+                    new MapResolver( _files, "/", cacheable, new HashMap<>() ),
+                    StandardCharsets.UTF_8 ) )
+            {
+                lines = stream.map( c -> String.format( "%s %s:%d %d",
+                        c,
+                        c.getSource(),
+                        c.getLineNumber(),
+                        c.getDepth() ) ).collect( Collectors.toList() );
+            }
+
+            // Uncached lines report the name from the include directive.
+            var a = cacheable ? "/inc/a.h" : "inc/a.h";
+            var b = cacheable ? "/inc/sub/b.h" : "sub/b.h";
+
+            assertEquals(
+                    List.of(
+                            "first null:1 0",
+                            "a1 " + a + ":1 1",
+                            "bä " + b + ":1 2",
+                            "a2 " + a + ":3 1",
+                            "bä /inc/sub/b.h:1 2",
+                            "a1 " + (cacheable ? a : "a.h") + ":1 2",
+                            "bä " + b + ":1 3",
+                            "a2 " + (cacheable ? a : "a.h") + ":3 2",
+                            "last null:4 0" ),
+                    lines );
+        }
+    }
+}
@@ -8,9 +8,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.LineNumberReader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.Test;
 
@@ -56,6 +61,52 @@ public class StringUtilTest
         assertNull( ba );
     }
 
+    @Test
+    public void testHexCodec() throws Exception
+    {
+        byte[] ba = { 0x00, (byte)0xff, 0x10, (byte)0x80, 0x7f };
+
+        assertEquals( "00ff10807f", StringUtil.toHex( ba ) );
+        assertEquals( "ff1080", StringUtil.toHex( ba, 1, 3 ) );
+        assertEquals( "", StringUtil.toHex( new byte[0] ) );
+
+        assertEquals(
+                "x:ff10",
+                StringUtil.appendHex(
+                        new StringBuilder( "x:" ), ba, 1, 2 ).toString() );
+
+        var buffer = ByteBuffer.allocateDirect( 5 ).put( ba ).position( 2 );
+        assertEquals( "10807f", StringUtil.toHex( buffer ) );
+        assertEquals(
+                "10807f",
+                StringUtil.appendHex( new StringWriter(), buffer ).toString() );
+        assertEquals( 2, buffer.position() );
+        assertEquals(
+                "ff10",
+                StringUtil.toHex( ByteBuffer.wrap( ba, 1, 2 ).slice() ) );
+
+        var target = new byte[7];
+        assertEquals( 5, StringUtil.decodeHex( "--00FF10807f", 2, 10, target, 1 ) );
+        assertArrayEquals( new byte[] { 0, 0x00, (byte)0xff, 0x10, (byte)0x80, 0x7f, 0 }, target );
+
+        var targetBuffer = ByteBuffer.allocate( 2 );
+        StringUtil.decodeHex( "aB9c", targetBuffer );
+        assertArrayEquals( new byte[] { (byte)0xab, (byte)0x9c }, targetBuffer.array() );
+
+        for ( var bad : new String[] { "0", "0g", "-1", "+1", "é0" } )
+        {
+            assertNull( bad, StringUtil.fromHex( bad ) );
+            try
+            {
+                StringUtil.decodeHex( bad, ByteBuffer.allocate( 1 ) );
+                fail( bad );
+            }
+            catch ( NumberFormatException expected )
+            {
+            }
+        }
+    }
+
     @Test
     public void testEmptyString() {
         assertNotNull( StringUtil.EMPTY_STRING );
@@ -234,6 +285,56 @@ public class StringUtilTest
                         "ab '' cd" ));
     }
 
+    @Test
+    public void testTokenize()
+    {
+        var bounds = new ArrayList<String>();
+        var source = " ab \"c d\"\te\"f\"g \"";
+
+        assertEquals(
+                5,
+                StringUtil.tokenize( source, '"', false,
+                        ( b, e, v ) -> bounds.add( b + ":" + e + ":" + v ) ) );
+        assertEquals(
+                Arrays.asList( "1:3:true", "5:8:true", "10:13:false", "14:15:true", "17:17:true" ),
+                bounds );
+        assertEquals(
+                "ef",
+                StringUtil.appendToken(
+                        new StringBuilder(), source, '"', false, 10, 13 ).toString() );
+        assertArrayEquals(
+                new String[] { "ab", "c d", "ef", "g", "" },
+                StringUtil.splitQuoted( source ) );
+        assertEquals(
+                0,
+                StringUtil.tokenize( " \t ", '"', false, ( b, e, v ) -> fail() ) );
+    }
+
+    @Test
+    public void testTokenizeEscapes()
+    {
+        assertArrayEquals(
+                new String[] { "a\"b", "c d", "\"e f\\" },
+                StringUtil.splitQuoted(
+                        '"', true, "a\\\"b c\\ d \"\\\"e f\\\\\"" ) );
+        // Escapes are not resolved in the default mode.
+        assertArrayEquals(
+                new String[] { "a\\", "b" },
+                StringUtil.splitQuoted( "a\\ b" ) );
+        assertEquals(
+                StringUtil.unquote( "\"x\\\"y\"" ),
+                StringUtil.splitQuoted( '"', true, "\"x\\\"y\"" )[0] );
+
+        try
+        {
+            StringUtil.splitQuoted( '"', true, "ab\\" );
+            fail();
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+    }
+
     @Test
     public void testQuote0()
     {
@@ -0,0 +1,91 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util.converters;
+
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.time.Month;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.smack.util.ReflectionUtil;
+import org.smack.util.converters.StringConverter.Converter;
+
+/**
+ * Compares synthesized converters against the reflective conversion
+ * they replace.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.smack.util.converters.StringConverterBenchmark}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringConverterBenchmark
+{
+    private Converter<String, BigDecimal> _ctorConverter;
+    private Constructor<BigDecimal> _ctor;
+
+    private Converter<String, Month> _enumConverter;
+
+    private final String _number = "313.5";
+    private final String _month = "DECEMBER";
+
+    @Setup
+    public void setup()
+    {
+        var converter = new StringConverter();
+
+        _ctorConverter = converter.getConverter( BigDecimal.class );
+        _ctor = ReflectionUtil.getConstructor( BigDecimal.class, String.class );
+        _enumConverter = converter.getConverter( Month.class );
+    }
+
+    @Benchmark
+    public BigDecimal ctorSynthesized() throws Exception
+    {
+        return _ctorConverter.convert( _number );
+    }
+
+    @Benchmark
+    public BigDecimal ctorReflective() throws Exception
+    {
+        return _ctor.newInstance( _number );
+    }
+
+    @Benchmark
+    public Month enumSynthesized() throws Exception
+    {
+        return _enumConverter.convert( _month );
+    }
+
+    @Benchmark
+    public Month enumReflective()
+    {
+        return ReflectionUtil.getEnumElement( Month.class, _month );
+    }
+
+    public static void main( String[] argv ) throws Exception
+    {
+        new Runner( new OptionsBuilder()
+                .include( StringConverterBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
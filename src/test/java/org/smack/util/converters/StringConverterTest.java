@@ -2,14 +2,28 @@ package org.smack.util.converters;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URL;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 import org.smack.util.ServiceManager;
@@ -66,6 +80,59 @@ public class StringConverterTest
                 _cvt.convert( int[].class, "-1 0 1" ) );
     }
 
+    @Test
+    public void testPrimitiveArrays() throws Exception
+    {
+        assertArrayEquals(
+                new byte[] { -128, 0x7f, 010 },
+                _cvt.convert( byte[].class, " -128 0x7f 010 " ) );
+        assertArrayEquals(
+                new int[] { Integer.MIN_VALUE, Integer.MAX_VALUE, -0xf, 0xf },
+                _cvt.convert( int[].class, "-2147483648\t2147483647 -#f +0Xf" ) );
+        assertArrayEquals(
+                new long[] { Long.MIN_VALUE, 0, 313 },
+                _cvt.convert( long[].class, "-9223372036854775808 0 313" ) );
+        assertArrayEquals(
+                new double[] { -1.5, 0, 3.13e2 },
+                _cvt.convert( double[].class, "-1.5 0 3.13e2" ),
+                0.0 );
+        assertArrayEquals(
+                new float[] { -1.5f, 313f },
+                _cvt.convert( float[].class, "-1.5\n313" ),
+                0.0f );
+        // Quoted elements.
+        assertArrayEquals(
+                new int[] { 1, 2 },
+                _cvt.convert( int[].class, "\"1\" 2" ) );
+        assertArrayEquals(
+                new long[] { 12, 3, 4 },
+                _cvt.convert( long[].class, "1\"2\" 3 \"4" ) );
+        assertArrayEquals(
+                new int[] {},
+                _cvt.convert( int[].class, "  " ) );
+
+        for ( var bad : new String[] { "1 x", "1 --1", "128", "0x" } )
+        {
+            try
+            {
+                _cvt.convert( byte[].class, bad );
+                fail( bad );
+            }
+            catch ( NumberFormatException expected )
+            {
+            }
+        }
+        try
+        {
+            _cvt.convert( boolean[].class, "true yes" );
+            fail();
+        }
+        catch ( NumberFormatException expected )
+        {
+            assertEquals( "yes", expected.getMessage() );
+        }
+    }
+
     @Test
     public void testColor() throws Exception
     {
@@ -192,4 +259,224 @@ public class StringConverterTest
             assertEquals( "Unknown font name: Donald", e.getMessage() );
         }
     }
+
+    @Test
+    public void testStringSyntFactory() throws Exception
+    {
+        // parse(CharSequence)
+        assertEquals(
+                Duration.ofSeconds( 313 ),
+                _cvt.convert( Duration.class, "PT313S" ) );
+        assertArrayEquals(
+                new LocalDate[] { LocalDate.of( 2021, 9, 13 ) },
+                _cvt.convert( LocalDate[].class, "2021-09-13" ) );
+        // valueOf(String)
+        assertEquals(
+                "313",
+                _cvt.convert( Factory.class, "313" )._value );
+        try
+        {
+            _cvt.convert( Duration.class, "313" );
+            fail();
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+    }
+
+    @Test
+    public void testStringSyntCtor() throws Exception
+    {
+        assertEquals(
+                new BigDecimal( "313.5" ),
+                _cvt.convert( BigDecimal.class, "313.5" ) );
+        try
+        {
+            _cvt.convert( BigDecimal.class, "micbinz" );
+            fail();
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+    }
+
+    public static class Factory
+    {
+        private final String _value;
+
+        private Factory( String value )
+        {
+            _value = value;
+        }
+
+        public static Factory valueOf( String value )
+        {
+            return new Factory( value );
+        }
+    }
+
+    public static class Token
+    {
+        public final String _value;
+
+        public Token( String value )
+        {
+            _value = value;
+        }
+    }
+
+    /**
+     * Defines {@link Token} again in a child class loader.
+     */
+    private static Class<?> loadTokenInChild() throws Exception
+    {
+        var name = Token.class.getName();
+        var parent = StringConverterTest.class.getClassLoader();
+
+        var loader = new ClassLoader( parent )
+        {
+            @Override
+            protected Class<?> loadClass( String n, boolean resolve )
+                throws ClassNotFoundException
+            {
+                if ( ! n.equals( name ) )
+                    return super.loadClass( n, resolve );
+
+                synchronized ( getClassLoadingLock( n ) )
+                {
+                    var result = findLoadedClass( n );
+                    if ( result != null )
+                        return result;
+
+                    try ( var in = parent.getResourceAsStream(
+                            n.replace( '.', '/' ) + ".class" ) )
+                    {
+                        var bytes = in.readAllBytes();
+                        return defineClass( n, bytes, 0, bytes.length );
+                    }
+                    catch ( IOException e )
+                    {
+                        throw new ClassNotFoundException( n, e );
+                    }
+                }
+            }
+        };
+
+        return loader.loadClass( name );
+    }
+
+    @Test
+    public void testChildClassLoader() throws Exception
+    {
+        var cl = loadTokenInChild();
+        assertNotSame( Token.class, cl );
+
+        var cvt = new StringConverter();
+        var token = cvt.convert( cl, "313" );
+
+        assertSame( cl, token.getClass() );
+        assertEquals( "313", cl.getField( "_value" ).get( token ) );
+    }
+
+    private static class Unconvertible
+    {
+        private final String _value;
+
+        Unconvertible( int value )
+        {
+            _value = Integer.toString( value );
+        }
+    }
+
+    @Test
+    public void testNoConverter() throws Exception
+    {
+        var cvt = new StringConverter();
+
+        assertFalse( cvt.containsKey( Unconvertible.class ) );
+        assertNull( cvt.getConverter( Unconvertible[].class ) );
+        try
+        {
+            cvt.convert( Unconvertible.class, "313" );
+            fail();
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+
+        // Adding a converter replaces the negative entries.
+        cvt.put(
+                Unconvertible.class,
+                s -> new Unconvertible( Integer.parseInt( s ) ) );
+
+        assertEquals(
+                "313",
+                cvt.convert( Unconvertible.class, "313" )._value );
+        var array =
+                cvt.convert( Unconvertible[].class, "313 314" );
+        assertEquals( 2, array.length );
+        assertEquals( "314", array[1]._value );
+    }
+
+    @Test
+    public void testPutDuringSynthesis() throws Exception
+    {
+        for ( int i = 0 ; i < 100 ; i++ )
+        {
+            var cvt = new StringConverter();
+            var done = new AtomicBoolean();
+
+            var reader = new Thread( () -> {
+                while ( ! done.get() )
+                    cvt.getConverter( Unconvertible[].class );
+            } );
+            reader.start();
+
+            cvt.put(
+                    Unconvertible.class,
+                    s -> new Unconvertible( Integer.parseInt( s ) ) );
+            done.set( true );
+            reader.join();
+
+            assertNotNull( cvt.getConverter( Unconvertible[].class ) );
+        }
+    }
+
+    @Test
+    public void testConcurrentSynthesis() throws Exception
+    {
+        var cvt = new StringConverter();
+        var executor = Executors.newFixedThreadPool( 8 );
+
+        try
+        {
+            var futures = new ArrayList<Future<Boolean>>();
+
+            Callable<Boolean> c = () -> {
+                for ( int i = 0 ; i < 100 ; i++ )
+                {
+                    assertArrayEquals(
+                            new Month[] { Month.MAY, Month.APRIL },
+                            cvt.convert( Month[].class, "MAY APRIL" ) );
+                    assertArrayEquals(
+                            new Locale[][] {
+                                { Locale.ITALIAN, Locale.JAPANESE },
+                                { Locale.ENGLISH } },
+                            cvt.convert( Locale[][].class, "\"it ja\" en" ) );
+                    assertNull(
+                            cvt.getConverter( Unconvertible[][].class ) );
+                }
+                return Boolean.TRUE;
+            };
+
+            for ( int i = 0 ; i < 8 ; i++ )
+                futures.add( executor.submit( c ) );
+            for ( var f : futures )
+                assertTrue( f.get() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,429 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.smack.util.io.OutputStreamForwarder.FullPolicy;
+
+public class OutputStreamForwarderTest
+{
+    /**
+     * A target that blocks writes until released.
+     */
+    private static class StalledTarget extends OutputStream
+    {
+        final CountDownLatch _entered = new CountDownLatch( 1 );
+        final CountDownLatch _release = new CountDownLatch( 1 );
+        final ByteArrayOutputStream _data = new ByteArrayOutputStream();
+
+        @Override
+        public synchronized void write( int b ) throws IOException
+        {
+            write( new byte[] { (byte)b }, 0, 1 );
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len ) throws IOException
+        {
+            _entered.countDown();
+            try
+            {
+                _release.await();
+            }
+            catch ( InterruptedException e )
+            {
+                throw new IOException( e );
+            }
+            synchronized ( this )
+            {
+                _data.write( b, off, len );
+            }
+        }
+
+        synchronized byte[] data()
+        {
+            return _data.toByteArray();
+        }
+    }
+
+    private static void awaitSize( StalledTarget target, int size )
+        throws InterruptedException
+    {
+        for ( int i = 0 ; i < 500 && target.data().length < size ; i++ )
+            Thread.sleep( 10 );
+    }
+
+    @Test
+    public void testOrder() throws Exception
+    {
+        var target = new StalledTarget();
+        target._release.countDown();
+
+        var expected = new ByteArrayOutputStream();
+
+        try ( var out = new OutputStreamForwarder(
+                target, 2, 16, FullPolicy.BLOCK ) )
+        {
+            for ( int i = 0 ; i < 1000 ; i++ )
+            {
+                var line = ("line " + i + "\n").getBytes();
+                if ( i % 2 == 0 )
+                    out.write( line );
+                else
+                    for ( var c : line )
+                        out.write( c );
+                expected.write( line );
+            }
+
+            awaitSize( target, expected.size() );
+        }
+
+        assertArrayEquals( expected.toByteArray(), target.data() );
+    }
+
+    @Test
+    public void testOffset() throws Exception
+    {
+        var target = new StalledTarget();
+        target._release.countDown();
+
+        try ( var out = new OutputStreamForwarder( target, 2 ) )
+        {
+            out.write( "0123456789".getBytes(), 3, 4 );
+            awaitSize( target, 4 );
+        }
+
+        assertEquals( "3456", new String( target.data() ) );
+    }
+
+    @Test
+    public void testDrop() throws Exception
+    {
+        var target = new StalledTarget();
+
+        var out = new OutputStreamForwarder(
+                target, 1, 4, FullPolicy.DROP );
+
+        // Taken by the data pump that blocks in the target.
+        out.write( "abcd".getBytes() );
+        assertTrue( target._entered.await( 5, TimeUnit.SECONDS ) );
+
+        out.write( "efgh".getBytes() );
+        // Dropped, does not fit.
+        out.write( "ijkl".getBytes() );
+
+        target._release.countDown();
+        awaitSize( target, 8 );
+
+        assertEquals( "abcdefgh", new String( target.data() ) );
+        out.close();
+    }
+
+    @Test
+    public void testFail() throws Exception
+    {
+        var target = new StalledTarget();
+
+        var out = new OutputStreamForwarder(
+                target, 1, 4, FullPolicy.FAIL );
+
+        out.write( "abcd".getBytes() );
+        assertTrue( target._entered.await( 5, TimeUnit.SECONDS ) );
+
+        out.write( "ef".getBytes() );
+        out.write( "gh".getBytes() );
+
+        try
+        {
+            out.write( 'i' );
+            fail();
+        }
+        catch ( IOException expected )
+        {
+        }
+
+        target._release.countDown();
+        out.close();
+    }
+
+    @Test
+    public void testFlush() throws Exception
+    {
+        var target = new StalledTarget();
+
+        var out = new OutputStreamForwarder(
+                target, 4, 4, FullPolicy.BLOCK );
+
+        out.write( "abcdefghij".getBytes() );
+
+        new Thread( () -> {
+            try
+            {
+                Thread.sleep( 100 );
+            }
+            catch ( InterruptedException ignore )
+            {
+            }
+            target._release.countDown();
+        } ).start();
+
+        out.flush();
+
+        assertEquals( "abcdefghij", new String( target.data() ) );
+        assertEquals( 10, out.getBytesWritten() );
+        out.close();
+    }
+
+    @Test
+    public void testCloseDrains() throws Exception
+    {
+        var target = new StalledTarget();
+        target._release.countDown();
+
+        var out = new OutputStreamForwarder(
+                target, 100, 16, FullPolicy.BLOCK );
+
+        var expected = new ByteArrayOutputStream();
+        for ( int i = 0 ; i < 100 ; i++ )
+        {
+            var line = ("line " + i + "\n").getBytes();
+            out.write( line );
+            expected.write( line );
+        }
+
+        assertTrue( out.close( Duration.ofSeconds( 5 ) ) );
+        assertArrayEquals( expected.toByteArray(), target.data() );
+
+        try
+        {
+            out.write( 'x' );
+            fail();
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "Stream closed.", e.getMessage() );
+        }
+    }
+
+    @Test
+    public void testCloseTimeout() throws Exception
+    {
+        var target = new StalledTarget();
+
+        var out = new OutputStreamForwarder(
+                target, 4, 4, FullPolicy.BLOCK );
+
+        out.write( "abcdefgh".getBytes() );
+
+        assertFalse( out.close( Duration.ofMillis( 100 ) ) );
+        assertEquals( 0, out.getBytesWritten() );
+    }
+
+    @Test
+    public void testStatistics() throws Exception
+    {
+        var target = new StalledTarget();
+
+        var out = new OutputStreamForwarder(
+                target, 2, 4, FullPolicy.DROP );
+
+        out.write( "abcd".getBytes() );
+        assertTrue( target._entered.await( 5, TimeUnit.SECONDS ) );
+
+        out.write( "efghij".getBytes() );
+        out.write( "klm".getBytes() );
+
+        assertEquals( 10, out.getBytesQueued() );
+        assertEquals( 3, out.getBytesDropped() );
+        assertEquals( 2, out.getHighWaterMark() );
+
+        target._release.countDown();
+        out.flush();
+
+        assertEquals( 10, out.getBytesWritten() );
+        assertEquals( "abcdefghij", new String( target.data() ) );
+        out.close();
+    }
+
+    @Test
+    public void testRuntimeFailure() throws Exception
+    {
+        var failure = new IllegalStateException( "Broken target." );
+
+        var target = new OutputStream()
+        {
+            @Override
+            public void write( int b )
+            {
+                throw failure;
+            }
+
+            @Override
+            public void write( byte[] b, int off, int len )
+            {
+                throw failure;
+            }
+        };
+
+        var out = new OutputStreamForwarder(
+                target, 1, 4, FullPolicy.BLOCK );
+
+        // The second write waits for room until the pump failed.
+        out.write( "abcd".getBytes() );
+
+        try
+        {
+            out.write( "efghijkl".getBytes() );
+            out.flush();
+            fail();
+        }
+        catch ( IOException e )
+        {
+            assertEquals( failure, e.getCause() );
+        }
+
+        try
+        {
+            out.close( Duration.ofMillis( 100 ) );
+            fail();
+        }
+        catch ( IOException e )
+        {
+            assertEquals( failure, e.getCause() );
+        }
+    }
+
+    @Test
+    public void testLegacyCapacity() throws Exception
+    {
+        var target = new StalledTarget();
+
+        try ( var out = new OutputStreamForwarder( target, 1 ) )
+        {
+            out.write( new byte[OutputStreamForwarder.CHUNK_SIZE] );
+            assertTrue( target._entered.await( 5, TimeUnit.SECONDS ) );
+
+            // One chunk is in the target, one chunk is queued.
+            out.write( 1 );
+            out.write( new byte[OutputStreamForwarder.CHUNK_SIZE - 1] );
+
+            try
+            {
+                out.write( 2 );
+                fail();
+            }
+            catch ( IOException expected )
+            {
+            }
+
+            target._release.countDown();
+        }
+    }
+
+    @Test
+    public void testOversizedWrite() throws Exception
+    {
+        var data = new byte[3 * OutputStreamForwarder.CHUNK_SIZE + 313];
+        new Random( 313 ).nextBytes( data );
+
+        for ( var policy : FullPolicy.values() )
+        {
+            var target = new ByteArrayOutputStream();
+
+            try ( var out = new OutputStreamForwarder(
+                    target,
+                    1,
+                    OutputStreamForwarder.CHUNK_SIZE,
+                    policy ) )
+            {
+                out.write( data );
+                out.flush();
+
+                assertEquals( 0, out.getBytesDropped() );
+            }
+
+            assertArrayEquals( data, target.toByteArray() );
+        }
+
+        var target = new ByteArrayOutputStream();
+        try ( var out = new OutputStreamForwarder( target, 1 ) )
+        {
+            out.write( new byte[9000] );
+        }
+        assertEquals( 9000, target.size() );
+    }
+
+    @Test
+    public void testCloseDuringWrite() throws Exception
+    {
+        var entered = new CountDownLatch( 1 );
+        var release = new CountDownLatch( 1 );
+        var closed = new CountDownLatch( 1 );
+        var overlap = new boolean[1];
+
+        var target = new OutputStream()
+        {
+            private volatile boolean _writing;
+
+            @Override
+            public void write( int b )
+            {
+                write( new byte[] { (byte)b }, 0, 1 );
+            }
+
+            @Override
+            public void write( byte[] b, int off, int len )
+            {
+                _writing = true;
+                entered.countDown();
+                // Ignores interrupts like a blocking socket write.
+                while ( release.getCount() > 0 )
+                    try
+                    {
+                        release.await();
+                    }
+                    catch ( InterruptedException ignore )
+                    {
+                    }
+                _writing = false;
+            }
+
+            @Override
+            public void close()
+            {
+                overlap[0] = _writing;
+                closed.countDown();
+            }
+        };
+
+        var out = new OutputStreamForwarder(
+                target, 4, 4, FullPolicy.BLOCK );
+
+        out.write( "abcd".getBytes() );
+        assertTrue( entered.await( 5, TimeUnit.SECONDS ) );
+
+        assertFalse( out.close( Duration.ofMillis( 50 ) ) );
+        assertEquals( 1, closed.getCount() );
+
+        release.countDown();
+        assertTrue( closed.await( 5, TimeUnit.SECONDS ) );
+        assertFalse( overlap[0] );
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Smack Java @ https://github.com/smacklib/dev_smack
+ *
+ * Copyright © 2026 Michael G. Binz
+ */
+package org.smack.util.io;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of the pipe implementations.  Each operation
+ * transfers one megabyte from a writer thread to the benchmark thread.
+ * <p>
+ * Run with {@code java -cp <test classpath> org.smack.util.io.PipeBenchmark}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipeBenchmark
+{
+    private static final int SIZE = 1024 * 1024;
+
+    @Param({ "power", "powerSpin", "simple", "nio", "offHeap" })
+    private String _pipeType;
+
+    @Param({ "1", "8192" })
+    private int _chunk;
+
+    private final byte[] _writeBuffer = new byte[8192];
+    private final byte[] _readBuffer = new byte[8192];
+
+    private ExecutorService _writer;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        _writer = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        _writer.shutdownNow();
+    }
+
+    private Pipe createPipe()
+    {
+        switch ( _pipeType )
+        {
+        case "power":
+            return new PowerPipe();
+        case "powerSpin":
+            return new PowerPipe( 10 * 1024, 1000 );
+        case "simple":
+            return new SimplePipe();
+        case "nio":
+            return new NioPipe();
+        case "offHeap":
+            return new OffHeapPipe( 10 * 1024 );
+        default:
+            throw new IllegalArgumentException( _pipeType );
+        }
+    }
+
+    @Benchmark
+    public int transfer() throws Exception
+    {
+        try ( var pipe = createPipe() )
+        {
+            var writer = _writer.submit( () -> {
+                var out = pipe.getWriteEnd();
+                for ( int i = 0 ; i < SIZE ; i += _chunk )
+                {
+                    if ( _chunk == 1 )
+                        out.write( i );
+                    else
+                        out.write( _writeBuffer, 0, _chunk );
+                }
+                out.flush();
+                return null;
+            } );
+
+            var in = pipe.getReadEnd();
+            int total = 0;
+            while ( total < SIZE )
+            {
+                int count = _chunk == 1 ?
+                        (in.read() < 0 ? -1 : 1) :
+                        in.read( _readBuffer );
+                if ( count < 0 )
+                    break;
+                total += count;
+            }
+
+            writer.get();
+            return total;
+        }
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        new Runner( new OptionsBuilder()
+                .include( PipeBenchmark.class.getSimpleName() )
+                .build() ).run();
+    }
+}
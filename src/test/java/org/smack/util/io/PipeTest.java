@@ -1,8 +1,17 @@
 package org.smack.util.io;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
@@ -34,4 +43,234 @@ public class PipeTest
     {
         singleChar( new SimplePipe() );
     }
+    @Test
+    public void testPipeOffHeap() throws IOException
+    {
+        singleChar( new OffHeapPipe( 10 ) );
+    }
+
+    /**
+     * Transfers data larger than the pipe buffer in varying chunk sizes.
+     */
+    private void bulk( Pipe p ) throws Exception
+    {
+        var random = new Random( 313 );
+        var data = new byte[100 * 1024];
+        random.nextBytes( data );
+
+        var executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            var writer = executor.submit( () -> {
+                var w = p.getWriteEnd();
+                for ( int i = 0 ; i < data.length ; )
+                {
+                    int len = Math.min( data.length - i, 1 + i % 3000 );
+                    w.write( data, i, len );
+                    i += len;
+                }
+                return null;
+            } );
+
+            var read = new ByteArrayOutputStream();
+            var buffer = new byte[777];
+            var r = p.getReadEnd();
+            while ( read.size() < data.length )
+            {
+                int count = r.read( buffer );
+                read.write( buffer, 0, count );
+            }
+
+            writer.get();
+            assertArrayEquals( data, read.toByteArray() );
+        }
+        finally
+        {
+            executor.shutdown();
+            p.close();
+        }
+    }
+
+    @Test
+    public void testBulkNio() throws Exception
+    {
+        bulk( new NioPipe() );
+    }
+    @Test
+    public void testBulkPower() throws Exception
+    {
+        bulk( new PowerPipe( 1000 ) );
+    }
+    @Test
+    public void testBulkPowerSpin() throws Exception
+    {
+        bulk( new PowerPipe( 1000, 1000 ) );
+    }
+    @Test
+    public void testBulkNormal() throws Exception
+    {
+        bulk( new SimplePipe( 1000 ) );
+    }
+
+    @Test
+    public void testAvailablePower() throws IOException
+    {
+        var p = new PowerPipe( 10 );
+        var r = p.getReadEnd();
+        assertEquals( 0, r.available() );
+        p.getWriteEnd().write( new byte[] { 1, 2, 3 } );
+        assertEquals( 3, r.available() );
+        assertEquals( 2, r.read( new byte[2] ) );
+        assertEquals( 1, r.available() );
+        p.close();
+        assertEquals( 0, r.available() );
+        assertEquals( -1, r.read() );
+    }
+
+    /**
+     * Transfers direct buffers through the channel views.
+     */
+    private void channel( Pipe p ) throws Exception
+    {
+        var data = new byte[50 * 1024];
+        new Random( 313 ).nextBytes( data );
+
+        var executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            assertSame( p.getWriteChannel(), p.getWriteChannel() );
+            assertSame( p.getReadChannel(), p.getReadChannel() );
+
+            var writer = executor.submit( () -> {
+                var src = ByteBuffer.allocateDirect( data.length );
+                src.put( data ).flip();
+                assertEquals( data.length, p.write( src ) );
+                return null;
+            } );
+
+            var dst = ByteBuffer.allocateDirect( data.length );
+            var chunk = ByteBuffer.allocateDirect( 999 );
+            while ( dst.hasRemaining() )
+            {
+                chunk.clear();
+                p.read( chunk );
+                dst.put( chunk.flip() );
+            }
+
+            writer.get();
+
+            var read = new byte[data.length];
+            dst.flip().get( read );
+            assertArrayEquals( data, read );
+        }
+        finally
+        {
+            executor.shutdown();
+            p.close();
+        }
+
+        assertFalse( p.getWriteChannel().isOpen() );
+    }
+
+    @Test
+    public void testChannelNio() throws Exception
+    {
+        channel( new NioPipe() );
+    }
+    @Test
+    public void testChannelCloseNio() throws Exception
+    {
+        var p = new NioPipe();
+
+        p.getReadChannel().close();
+
+        assertFalse( p.getReadChannel().isOpen() );
+        assertFalse( p.getWriteChannel().isOpen() );
+        try
+        {
+            p.write( ByteBuffer.allocate( 1 ) );
+            fail();
+        }
+        catch ( IOException expected )
+        {
+        }
+    }
+    @Test
+    public void testChannelPower() throws Exception
+    {
+        channel( new PowerPipe( 1000 ) );
+    }
+    @Test
+    public void testChannelNormal() throws Exception
+    {
+        channel( new SimplePipe( 1000 ) );
+    }
+
+    @Test
+    public void testBulkOffHeap() throws Exception
+    {
+        bulk( new OffHeapPipe( 1000 ) );
+    }
+    @Test
+    public void testChannelOffHeap() throws Exception
+    {
+        channel( new OffHeapPipe( 1000 ) );
+    }
+    @Test
+    public void testChannelOffHeapMapped() throws Exception
+    {
+        var directory = Files.createTempDirectory( "smack" );
+        try
+        {
+            channel( new OffHeapPipe( 1000, directory ) );
+            // The temporary file is removed on close.
+            try ( var files = Files.list( directory ) )
+            {
+                assertEquals( 0, files.count() );
+            }
+        }
+        finally
+        {
+            Files.delete( directory );
+        }
+    }
+
+    /**
+     * A large buffer decouples the writer from the reader and is drained
+     * after close.
+     */
+    @Test
+    public void testOffHeapLarge() throws Exception
+    {
+        var directory = Files.createTempDirectory( "smack" );
+        try
+        {
+            int size = 16 * 1024 * 1024;
+            var p = new OffHeapPipe( size, directory );
+
+            var data = new byte[64 * 1024];
+            new Random( 313 ).nextBytes( data );
+
+            var w = p.getWriteEnd();
+            for ( int i = 0 ; i < size ; i += data.length )
+                w.write( data );
+            w.close();
+
+            assertEquals( size, p.getReadEnd().available() );
+
+            var read = new byte[data.length];
+            for ( int i = 0 ; i < size ; i += data.length )
+            {
+                assertEquals( data.length, p.getReadEnd().readNBytes(
+                        read, 0, read.length ) );
+                assertArrayEquals( data, read );
+            }
+
+            assertEquals( -1, p.getReadEnd().read() );
+        }
+        finally
+        {
+            Files.delete( directory );
+        }
+    }
 }
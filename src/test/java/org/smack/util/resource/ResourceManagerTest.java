@@ -206,4 +206,38 @@ public final class ResourceManagerTest
         T_BaseClass b = c;
         assertEquals( "T_Overridden", b.name );
     }
+
+    @Test
+    public void testResourceMapChain()
+    {
+        var map = _rm.getResourceMap2( T_SuperClass.class );
+
+        assertEquals( "T_SuperClass", map.get( "name" ) );
+        assertEquals( "T_Overridden", map.get( "T_BaseClass.name" ) );
+        // Defined in the superclass only.
+        assertEquals( "inherited", map.get( "T_BaseClass.inherited" ) );
+        assertNull( map.get( "T_SuperClass.inherited" ) );
+        assertNull( map.get( "unknown" ) );
+        // The map is shared.
+        assertTrue( map == _rm.getResourceMap2( T_SuperClass.class ) );
+    }
+
+    @Test
+    public void testResourceMapParentChange()
+    {
+        var map = _rm.getResourceMap2( T_SuperClass.class );
+        var parent = _rm.getResourceMap2( T_BaseClass.class );
+
+        assertNull( map.get( "T_BaseClass.added" ) );
+        parent.put( "T_BaseClass.added", "313" );
+        try
+        {
+            assertEquals( "313", map.get( "T_BaseClass.added" ) );
+        }
+        finally
+        {
+            parent.remove( "T_BaseClass.added" );
+        }
+        assertNull( map.get( "T_BaseClass.added" ) );
+    }
 }